@@ -1,5 +1,7 @@
 import org.gradle.plugins.signing.signatory.internal.gnupg.GnupgSignatoryProvider
 import org.gradle.security.internal.gnupg.GnupgSignatory
+import org.javamodularity.moduleplugin.extensions.CompileTestModuleOptions
+import org.javamodularity.moduleplugin.extensions.TestModuleOptions
 
 plugins {
     // Apply the java-library plugin for API and implementation separation.
@@ -41,9 +43,21 @@ tasks {
 //		}
 //	}
 
+	// the allocation tests read the per thread allocation counter of the JDK specific ThreadMXBean
+	compileTestJava {
+		extensions.configure(CompileTestModuleOptions::class) {
+			addModules = listOf("jdk.management")
+			addReads = mapOf("org.electrologic.uuid" to "jdk.management")
+		}
+	}
+
 	test {
 		// Use JUnit Platform for unit tests.
 		useJUnitPlatform()
+		extensions.configure(TestModuleOptions::class) {
+			addModules = listOf("jdk.management")
+			addReads = mapOf("org.electrologic.uuid" to "jdk.management")
+		}
 	}
 }
 
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Formatter for the standard UUID string representation writing ASCII characters directly to arrays and buffers.
+ *
+ * The formatter does not create strings or character arrays, so many UUIDs can be rendered into an output buffer
+ * without producing garbage.
+ * Like {@link BatchHexParser}, eight hex digits are computed at once with arithmetic and bit operations on a 64 bit
+ * word.
+ * The output uses lower case hex digits, as defined by {@link UUID#toString()}.
+ *
+ * @see UUIDWriter
+ */
+public final class BatchHexFormatter {
+
+	private static final VarHandle LONG_ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_ARRAY = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_BUFFER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private static final long ONES = 0x0101010101010101L;
+
+	private BatchHexFormatter() {
+	}
+
+	/**
+	 * Render 32 bits as eight lower case ASCII hex digits packed in a big-endian word.
+	 */
+	private static long encodeWord(long value) {
+		// spread the nibbles to one per byte: shorts, then bytes, then nibbles
+		long x = value & 0xFFFFFFFFL;
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		// bytes with a value above 9 get the high bit set when adding 0x76
+		long letters = ((x + 0x76 * ONES) >>> 7) & ONES;
+		return x + '0' * ONES + letters * ('a' - '0' - 10);
+	}
+
+	/**
+	 * Write the standard representation of a UUID into the given array.
+	 *
+	 * @param msb The most significant 64 bits of the UUID.
+	 * @param lsb The least significant 64 bits of the UUID.
+	 * @param dst The array receiving the 36 ASCII characters.
+	 * @param offset The offset of the first character in the array.
+	 * @throws IndexOutOfBoundsException If there is not enough space for 36 characters at the offset.
+	 */
+	public static void format(long msb, long lsb, byte[] dst, int offset) {
+		long w1 = encodeWord(msb);
+		long w2 = encodeWord(lsb >>> 32);
+		LONG_ARRAY.set(dst, offset + 28, encodeWord(lsb));
+		LONG_ARRAY.set(dst, offset, encodeWord(msb >>> 32));
+		dst[offset + 8] = '-';
+		INT_ARRAY.set(dst, offset + 9, (int) (w1 >>> 32));
+		dst[offset + 13] = '-';
+		INT_ARRAY.set(dst, offset + 14, (int) w1);
+		dst[offset + 18] = '-';
+		INT_ARRAY.set(dst, offset + 19, (int) (w2 >>> 32));
+		dst[offset + 23] = '-';
+		INT_ARRAY.set(dst, offset + 24, (int) w2);
+	}
+
+	/**
+	 * Write the standard representation of a UUID at the given index of a buffer.
+	 *
+	 * The position of the buffer is not modified.
+	 *
+	 * @param msb The most significant 64 bits of the UUID.
+	 * @param lsb The least significant 64 bits of the UUID.
+	 * @param dst The buffer receiving the 36 ASCII characters.
+	 * @param index The index of the first character in the buffer.
+	 * @throws IndexOutOfBoundsException If there is not enough space for 36 characters at the index.
+	 */
+	public static void format(long msb, long lsb, ByteBuffer dst, int index) {
+		long w1 = encodeWord(msb);
+		long w2 = encodeWord(lsb >>> 32);
+		LONG_BUFFER.set(dst, index + 28, encodeWord(lsb));
+		LONG_BUFFER.set(dst, index, encodeWord(msb >>> 32));
+		dst.put(index + 8, (byte) '-');
+		INT_BUFFER.set(dst, index + 9, (int) (w1 >>> 32));
+		dst.put(index + 13, (byte) '-');
+		INT_BUFFER.set(dst, index + 14, (int) w1);
+		dst.put(index + 18, (byte) '-');
+		INT_BUFFER.set(dst, index + 19, (int) (w2 >>> 32));
+		dst.put(index + 23, (byte) '-');
+		INT_BUFFER.set(dst, index + 24, (int) w2);
+	}
+
+}
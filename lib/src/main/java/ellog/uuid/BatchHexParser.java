@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Parser for the standard UUID string representation which processes many UUIDs at once.
+ *
+ * The input is ASCII text in a byte array or buffer, where the UUIDs are placed at a fixed distance (stride) from each
+ * other, such as the rows of a CSV column or a newline separated file.
+ * The parsed UUIDs are written as pairs of most and least significant halves into a {@code long[]}, where the UUID with
+ * index {@code i} is stored at {@code 2*i} and {@code 2*i+1}, so no object is created for any UUID.
+ *
+ * <p>Each UUID is processed as four 64 bit words of eight ASCII characters.
+ * The hex digits of a word are validated and decoded with a fixed sequence of arithmetic and bit operations on all
+ * eight characters at once, instead of processing the characters one by one.
+ * Strings and other character sequences are parsed by a scalar table-driven implementation of the same format.</p>
+ *
+ * <p>Both upper and lower case hex digits are accepted, as defined by {@link UUID#parseHex(String)}.</p>
+ */
+public final class BatchHexParser {
+
+	/** The length of the standard string representation of a UUID. */
+	public static final int HEX_LENGTH = 36;
+
+	private static final VarHandle LONG_ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_ARRAY = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_BUFFER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGHS = 0x8080808080808080L;
+	private static final long LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+	private static final long CASE_BITS = 0x2020202020202020L;
+	/** Marker for an invalid word, decoded words only use the lower 32 bits. */
+	private static final long INVALID = -1L;
+
+	private static final byte[] HEX_VALUES = new byte[128];
+
+	static {
+		Arrays.fill(HEX_VALUES, (byte) -1);
+		for (int i = 0; i < 10; i++) {
+			HEX_VALUES['0' + i] = (byte) i;
+		}
+		for (int i = 0; i < 6; i++) {
+			HEX_VALUES['a' + i] = (byte) (10 + i);
+			HEX_VALUES['A' + i] = (byte) (10 + i);
+		}
+	}
+
+	private BatchHexParser() {
+	}
+
+	/**
+	 * Compute a mask with the high bit set in each byte of the word which lies within the given range.
+	 * All bytes of the word must be smaller than 0x80.
+	 */
+	private static long inRange(long word, int lo, int hi) {
+		long geLo = word + (0x80 - lo) * ONES;
+		long gtHi = word + (0x7F - hi) * ONES;
+		return geLo & ~gtHi & HIGHS;
+	}
+
+	/**
+	 * Decode eight ASCII hex digits packed in a big-endian word.
+	 * @return The 32 bit value of the digits, or {@link #INVALID} if one of the characters is not a hex digit.
+	 */
+	private static long decodeWord(long word) {
+		if ((word & HIGHS) != 0) {
+			return INVALID;
+		}
+		long digits = inRange(word, '0', '9');
+		long letters = inRange(word | CASE_BITS, 'a', 'f');
+		if ((digits | letters) != HIGHS) {
+			return INVALID;
+		}
+		// one nibble in each byte, letters need an additional offset of 9 ('a' & 0xF == 1)
+		long nibbles = (word & LOW_NIBBLES) + (letters >>> 7) * 9;
+		// merge adjacent nibbles, then bytes, then shorts
+		nibbles = (nibbles | (nibbles >>> 4)) & 0x00FF00FF00FF00FFL;
+		nibbles = (nibbles | (nibbles >>> 8)) & 0x0000FFFF0000FFFFL;
+		nibbles = (nibbles | (nibbles >>> 16)) & 0x00000000FFFFFFFFL;
+		return nibbles;
+	}
+
+	private static long joinWords(int high, int low) {
+		return (long) high << 32 | (low & 0xFFFFFFFFL);
+	}
+
+	private static boolean isDash(byte b) {
+		return b == '-';
+	}
+
+	/**
+	 * Parse a single UUID in the given array and store it in the destination array.
+	 *
+	 * @param src The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID.
+	 * @param dst The array receiving the halves of the UUID.
+	 * @param dstIndex The index of the UUID in the destination array.
+	 * @return True if the UUID has been parsed, false if the input does not satisfy the format.
+	 * @throws IndexOutOfBoundsException If the source does not contain 36 characters at the offset or the destination
+	 *     array is too small.
+	 */
+	public static boolean tryParse(byte[] src, int offset, long[] dst, int dstIndex) {
+		long w0 = (long) LONG_ARRAY.get(src, offset);
+		long w1 = joinWords((int) INT_ARRAY.get(src, offset + 9), (int) INT_ARRAY.get(src, offset + 14));
+		long w2 = joinWords((int) INT_ARRAY.get(src, offset + 19), (int) INT_ARRAY.get(src, offset + 24));
+		long w3 = (long) LONG_ARRAY.get(src, offset + 28);
+		boolean dashes = isDash(src[offset + 8]) & isDash(src[offset + 13])
+			& isDash(src[offset + 18]) & isDash(src[offset + 23]);
+		return store(dashes, w0, w1, w2, w3, dst, dstIndex);
+	}
+
+	/**
+	 * Parse a single UUID at the given index of a buffer and store it in the destination array.
+	 *
+	 * The position of the buffer is not modified.
+	 *
+	 * @param src The buffer containing the ASCII representation of the UUID.
+	 * @param index The index of the first character of the UUID.
+	 * @param dst The array receiving the halves of the UUID.
+	 * @param dstIndex The index of the UUID in the destination array.
+	 * @return True if the UUID has been parsed, false if the input does not satisfy the format.
+	 * @throws IndexOutOfBoundsException If the source does not contain 36 characters at the index or the destination
+	 *     array is too small.
+	 */
+	public static boolean tryParse(ByteBuffer src, int index, long[] dst, int dstIndex) {
+		long w0 = (long) LONG_BUFFER.get(src, index);
+		long w1 = joinWords((int) INT_BUFFER.get(src, index + 9), (int) INT_BUFFER.get(src, index + 14));
+		long w2 = joinWords((int) INT_BUFFER.get(src, index + 19), (int) INT_BUFFER.get(src, index + 24));
+		long w3 = (long) LONG_BUFFER.get(src, index + 28);
+		boolean dashes = isDash(src.get(index + 8)) & isDash(src.get(index + 13))
+			& isDash(src.get(index + 18)) & isDash(src.get(index + 23));
+		return store(dashes, w0, w1, w2, w3, dst, dstIndex);
+	}
+
+	private static boolean store(boolean dashes, long w0, long w1, long w2, long w3, long[] dst, int dstIndex) {
+		long d0 = decodeWord(w0);
+		long d1 = decodeWord(w1);
+		long d2 = decodeWord(w2);
+		long d3 = decodeWord(w3);
+		if (!dashes || (d0 | d1 | d2 | d3) == INVALID) {
+			return false;
+		}
+		dst[2 * dstIndex] = d0 << 32 | d1;
+		dst[2 * dstIndex + 1] = d2 << 32 | d3;
+		return true;
+	}
+
+	/**
+	 * Parse a batch of UUIDs from an array of ASCII characters.
+	 *
+	 * @param src The array containing the ASCII representation of the UUIDs.
+	 * @param offset The offset of the first character of the first UUID.
+	 * @param stride The distance between the first characters of two consecutive UUIDs, at least 36.
+	 * @param dst The array receiving the halves of the UUIDs.
+	 * @param dstIndex The index of the first UUID in the destination array.
+	 * @param count The number of UUIDs to parse.
+	 * @throws IllegalArgumentException If the stride is smaller than 36, or if one of the UUIDs does not satisfy the
+	 *     format. In the latter case, all UUIDs before the malformed one have been stored.
+	 * @throws IndexOutOfBoundsException If the source or destination array is too small.
+	 */
+	public static void parse(byte[] src, int offset, int stride, long[] dst, int dstIndex, int count) {
+		checkStride(stride);
+		for (int i = 0; i < count; i++) {
+			if (!tryParse(src, offset + i * stride, dst, dstIndex + i)) {
+				throw malformed(i);
+			}
+		}
+	}
+
+	/**
+	 * Parse a batch of UUIDs from a buffer of ASCII characters.
+	 *
+	 * The position of the buffer is not modified.
+	 *
+	 * @param src The buffer containing the ASCII representation of the UUIDs.
+	 * @param index The index of the first character of the first UUID.
+	 * @param stride The distance between the first characters of two consecutive UUIDs, at least 36.
+	 * @param dst The array receiving the halves of the UUIDs.
+	 * @param dstIndex The index of the first UUID in the destination array.
+	 * @param count The number of UUIDs to parse.
+	 * @throws IllegalArgumentException If the stride is smaller than 36, or if one of the UUIDs does not satisfy the
+	 *     format. In the latter case, all UUIDs before the malformed one have been stored.
+	 * @throws IndexOutOfBoundsException If the source buffer or destination array is too small.
+	 */
+	public static void parse(ByteBuffer src, int index, int stride, long[] dst, int dstIndex, int count) {
+		checkStride(stride);
+		for (int i = 0; i < count; i++) {
+			if (!tryParse(src, index + i * stride, dst, dstIndex + i)) {
+				throw malformed(i);
+			}
+		}
+	}
+
+	private static void checkStride(int stride) {
+		if (stride < HEX_LENGTH) {
+			throw new IllegalArgumentException("Stride must be at least " + HEX_LENGTH + ".");
+		}
+	}
+
+	private static IllegalArgumentException malformed(int index) {
+		return new IllegalArgumentException("Provided input does not satisfy the UUID hex format at UUID " + index + ".");
+	}
+
+	/**
+	 * Check if the ASCII characters at the given offset satisfy the standard UUID string representation.
+	 * @param src The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID.
+	 * @return True if the 36 characters at the offset are a UUID in its standard string representation.
+	 * @throws IndexOutOfBoundsException If the source does not contain 36 characters at the offset.
+	 */
+	static boolean isValid(byte[] src, int offset) {
+		long w0 = (long) LONG_ARRAY.get(src, offset);
+		long w1 = joinWords((int) INT_ARRAY.get(src, offset + 9), (int) INT_ARRAY.get(src, offset + 14));
+		long w2 = joinWords((int) INT_ARRAY.get(src, offset + 19), (int) INT_ARRAY.get(src, offset + 24));
+		long w3 = (long) LONG_ARRAY.get(src, offset + 28);
+		boolean dashes = isDash(src[offset + 8]) & isDash(src[offset + 13])
+			& isDash(src[offset + 18]) & isDash(src[offset + 23]);
+		return dashes && (decodeWord(w0) | decodeWord(w1) | decodeWord(w2) | decodeWord(w3)) != INVALID;
+	}
+
+	/**
+	 * Decode the most significant half of a UUID from its validated ASCII representation.
+	 * @param src The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID, must satisfy {@link #isValid(byte[], int)}.
+	 * @return The most significant 64 bits.
+	 */
+	static long decodeMsb(byte[] src, int offset) {
+		long w0 = (long) LONG_ARRAY.get(src, offset);
+		long w1 = joinWords((int) INT_ARRAY.get(src, offset + 9), (int) INT_ARRAY.get(src, offset + 14));
+		return decodeWord(w0) << 32 | decodeWord(w1);
+	}
+
+	/**
+	 * Decode the least significant half of a UUID from its validated ASCII representation.
+	 * @param src The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID, must satisfy {@link #isValid(byte[], int)}.
+	 * @return The least significant 64 bits.
+	 */
+	static long decodeLsb(byte[] src, int offset) {
+		long w2 = joinWords((int) INT_ARRAY.get(src, offset + 19), (int) INT_ARRAY.get(src, offset + 24));
+		long w3 = (long) LONG_ARRAY.get(src, offset + 28);
+		return decodeWord(w2) << 32 | decodeWord(w3);
+	}
+
+	/**
+	 * Check if the validated ASCII representation of a UUID contains uppercase hex digits.
+	 * @param src The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID, must satisfy {@link #isValid(byte[], int)}.
+	 * @return True if any of the characters is in the range {@code A-F}.
+	 */
+	static boolean hasUpperCase(byte[] src, int offset) {
+		// overlapping words covering all 36 characters, the dashes are not in the range
+		long upper = 0;
+		for (int i = 0; i < 32; i += 8) {
+			upper |= inRange((long) LONG_ARRAY.get(src, offset + i), 'A', 'F');
+		}
+		upper |= inRange((long) LONG_ARRAY.get(src, offset + 28), 'A', 'F');
+		return upper != 0;
+	}
+
+	/**
+	 * Check if the validated string representation of a UUID contains uppercase hex digits.
+	 * @param s The characters of the UUID, must satisfy {@link #isValid(CharSequence)}.
+	 * @return True if any of the characters is in the range {@code A-F}.
+	 */
+	static boolean hasUpperCase(CharSequence s) {
+		for (int i = 0; i < HEX_LENGTH; i++) {
+			char c = s.charAt(i);
+			if (c >= 'A' && c <= 'F') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the value of a hex digit.
+	 * @param c The validated hex digit.
+	 * @return The value of the digit.
+	 */
+	static int hexValue(int c) {
+		return HEX_VALUES[c];
+	}
+
+	/**
+	 * Check if the given characters satisfy the standard UUID string representation.
+	 *
+	 * This is the scalar implementation of the format check, which is used for character sequences.
+	 *
+	 * @param s The characters to check.
+	 * @return True if the sequence consists of exactly one UUID in its standard string representation.
+	 */
+	static boolean isValid(CharSequence s) {
+		if (s.length() != HEX_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < HEX_LENGTH; i++) {
+			char c = s.charAt(i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return false;
+				}
+			} else if (c >= 128 || HEX_VALUES[c] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decode the most significant half of a UUID from its validated string representation.
+	 * @param s The characters of the UUID, must satisfy {@link #isValid(CharSequence)}.
+	 * @return The most significant 64 bits.
+	 */
+	static long decodeMsb(CharSequence s) {
+		return decodeScalar(s, 0, 8) << 32 | decodeScalar(s, 9, 4) << 16 | decodeScalar(s, 14, 4);
+	}
+
+	/**
+	 * Decode the least significant half of a UUID from its validated string representation.
+	 * @param s The characters of the UUID, must satisfy {@link #isValid(CharSequence)}.
+	 * @return The least significant 64 bits.
+	 */
+	static long decodeLsb(CharSequence s) {
+		return decodeScalar(s, 19, 4) << 48 | decodeScalar(s, 24, 12);
+	}
+
+	private static long decodeScalar(CharSequence s, int offset, int length) {
+		long result = 0;
+		for (int i = offset; i < offset + length; i++) {
+			result = result << 4 | HEX_VALUES[s.charAt(i)];
+		}
+		return result;
+	}
+
+}
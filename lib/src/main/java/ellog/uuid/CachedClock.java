@@ -0,0 +1,317 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.lang.ref.Cleaner;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock returning a cached time which is updated periodically by a ticker thread.
+ *
+ * Reading the system clock is comparatively expensive on some systems, for example in virtual machines with a slow
+ * clock source.
+ * This clock reads its source only once per period in a dedicated daemon thread and publishes the result in a volatile
+ * field, so {@link #millis()} and {@link #instant()} neither read the source clock nor allocate objects.
+ * The clock can be passed to {@link TimeProviderV1#setClock(Clock)} and {@link TimeProviderV7#setClock(Clock)}.
+ *
+ * <p>The returned time lags behind the source clock by at most the maximum staleness.
+ * Usually the lag is the period, but the ticker thread may be delayed by the scheduler of the operating system or a
+ * pause of the virtual machine.
+ * Therefore each thread compares the age of the cached value with {@link System#nanoTime()} and reads the source
+ * clock directly if the value is older than the maximum staleness, until the ticker thread has updated it again.
+ * {@link System#nanoTime()} usually uses the same clock source as the system clock, so the age is only checked on
+ * every {@value #CHECK_INTERVAL}th read of a thread, and on every read after a stale value has been detected.
+ * A thread may therefore return a value older than the maximum staleness for up to {@value #CHECK_INTERVAL} - 1 reads,
+ * that is the lag is bounded by the maximum staleness plus the time the thread needs for these reads.
+ * The time may go backwards slightly when the ticker publishes a value it read before such a direct read.
+ * The time providers handle this like any other clock going backwards.
+ * With a maximum staleness of {@link #UNBOUNDED} the check is skipped, and there is no hard bound for the lag: a
+ * stalled ticker thread freezes the time, and version 7 providers continue with the following milliseconds until
+ * the ticker resumes.</p>
+ *
+ * <p>Within one period the same time is returned repeatedly, so the precision of the clock is the period.
+ * The time providers treat repeated values like a clock with coarse granularity: they increment their counter, or the
+ * timestamp in case of version 1 UUIDs, so the UUIDs stay unique and monotonic.
+ * More UUIDs are generated within one millisecond in this case, so the counter may be exhausted earlier.</p>
+ *
+ * <p>The clock should be closed to stop the ticker thread.
+ * After closing, the source clock is read directly.
+ * A clock which becomes unreachable without being closed stops its ticker thread when it is cleaned up by the garbage
+ * collector.</p>
+ */
+public final class CachedClock extends Clock implements AutoCloseable {
+
+	/** The default update period of one millisecond. */
+	public static final Duration DEFAULT_PERIOD = Duration.ofMillis(1);
+	/** Maximum staleness disabling the check of the age of the cached value. */
+	public static final Duration UNBOUNDED = ChronoUnit.FOREVER.getDuration();
+	/** The factor between the period and the default maximum staleness. */
+	private static final int DEFAULT_STALENESS_PERIODS = 10;
+	/** The number of reads of a thread between two checks of the age of the cached value. */
+	static final int CHECK_INTERVAL = 64;
+	/** Stops the ticker threads of unreachable clocks. */
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final Clock source;
+	private final Duration period;
+	private final Duration maxStaleness;
+	private final long maxStalenessNanos;
+	private final TickState state;
+	private final ThreadLocal<ReadCounter> counters;
+	private final Cleaner.Cleanable stopper;
+	/** The clock owning the ticker thread, referenced by derived clocks so it is not cleaned up before them. */
+	private final CachedClock owner;
+
+	/**
+	 * Create a new clock caching the system clock in UTC with the default period.
+	 *
+	 * The maximum staleness is ten periods.
+	 */
+	public CachedClock() {
+		this(Clock.systemUTC(), DEFAULT_PERIOD);
+	}
+
+	/**
+	 * Create a new clock caching the given clock, with a maximum staleness of ten periods.
+	 * @param source The clock to read periodically.
+	 * @param period The time between two updates of the cached value.
+	 * @throws IllegalArgumentException If the period is not positive.
+	 */
+	public CachedClock(Clock source, Duration period) {
+		this(source, period, period.multipliedBy(DEFAULT_STALENESS_PERIODS));
+	}
+
+	/**
+	 * Create a new clock caching the given clock.
+	 * @param source The clock to read periodically.
+	 * @param period The time between two updates of the cached value.
+	 * @param maxStaleness The largest age of the cached value, older values are not returned, or {@link #UNBOUNDED}.
+	 * @throws IllegalArgumentException If the period is not positive or the maximum staleness is shorter than the
+	 *     period.
+	 */
+	public CachedClock(Clock source, Duration period, Duration maxStaleness) {
+		if (period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("The update period must be positive.");
+		}
+		if (maxStaleness.compareTo(period) < 0) {
+			throw new IllegalArgumentException("The maximum staleness must not be shorter than the update period.");
+		}
+		this.source = source;
+		this.period = period;
+		this.maxStaleness = maxStaleness;
+		this.maxStalenessNanos = maxStaleness.compareTo(Duration.ofNanos(Long.MAX_VALUE)) >= 0
+			? Long.MAX_VALUE
+			: maxStaleness.toNanos();
+		this.state = new TickState(source);
+		this.counters = ThreadLocal.withInitial(ReadCounter::new);
+		this.owner = this;
+		Thread ticker = new Thread(new Ticker(state, source, period.toNanos()), "UUID clock ticker");
+		ticker.setDaemon(true);
+		ticker.start();
+		this.stopper = CLEANER.register(this, new Stopper(state, ticker));
+	}
+
+	private CachedClock(CachedClock base, ZoneId zone) {
+		this.source = base.source.withZone(zone);
+		this.period = base.period;
+		this.maxStaleness = base.maxStaleness;
+		this.maxStalenessNanos = base.maxStalenessNanos;
+		this.state = base.state;
+		this.counters = base.counters;
+		this.stopper = base.stopper;
+		this.owner = base.owner;
+	}
+
+	/**
+	 * Get the time between two updates of the cached value.
+	 * @return The update period.
+	 */
+	public Duration getPeriod() {
+		return period;
+	}
+
+	/**
+	 * Get the largest age of a cached value which is returned.
+	 * @return The maximum staleness.
+	 */
+	public Duration getMaxStaleness() {
+		return maxStaleness;
+	}
+
+	private boolean isFresh() {
+		if (state.closed) {
+			return false;
+		}
+		if (maxStalenessNanos == Long.MAX_VALUE) {
+			return true;
+		}
+		ReadCounter counter = counters.get();
+		if (--counter.untilCheck > 0) {
+			return true;
+		}
+		if (System.nanoTime() - state.tickNanos <= maxStalenessNanos) {
+			counter.untilCheck = CHECK_INTERVAL;
+			return true;
+		}
+		// check again on the next read, until the ticker has updated the value
+		counter.untilCheck = 1;
+		return false;
+	}
+
+	@Override
+	public ZoneId getZone() {
+		return source.getZone();
+	}
+
+	/**
+	 * Get a clock with a different zone, which shares the cached time and the ticker thread of this clock.
+	 * @param zone The time-zone of the returned clock.
+	 * @return A clock with the given zone.
+	 */
+	@Override
+	public Clock withZone(ZoneId zone) {
+		if (zone.equals(getZone())) {
+			return this;
+		}
+		return new CachedClock(this, zone);
+	}
+
+	@Override
+	public long millis() {
+		// the values are published before the tick time, so they are at least as new as the checked tick
+		if (isFresh()) {
+			return state.millis;
+		}
+		return source.millis();
+	}
+
+	@Override
+	public Instant instant() {
+		if (isFresh()) {
+			return state.instant;
+		}
+		return source.instant();
+	}
+
+	/**
+	 * Stop the ticker thread.
+	 *
+	 * The clock, and all clocks obtained with {@link #withZone(ZoneId)}, read the source clock directly afterwards.
+	 */
+	@Override
+	public void close() {
+		stopper.clean();
+	}
+
+	@Override
+	public String toString() {
+		return "CachedClock[" + source + ", " + period + ", " + maxStaleness + "]";
+	}
+
+	/**
+	 * Left padding of the cached values, so they do not share a cache line with other objects.
+	 */
+	private static class LeftPadding {
+		long p00, p01, p02, p03, p04, p05, p06, p07;
+	}
+
+	/**
+	 * The cached values, written by the ticker thread and read by all other threads.
+	 */
+	private static class TickValues extends LeftPadding {
+		volatile long millis;
+		volatile Instant instant;
+		volatile long tickNanos;
+		volatile boolean closed;
+	}
+
+	/**
+	 * Right padding of the cached values, so they do not share a cache line with other objects.
+	 */
+	private static final class TickState extends TickValues {
+		long p10, p11, p12, p13, p14, p15, p16, p17;
+
+		TickState(Clock source) {
+			update(source);
+		}
+
+		void update(Clock source) {
+			long nanos = System.nanoTime();
+			Instant now = source.instant();
+			instant = now;
+			millis = now.toEpochMilli();
+			tickNanos = nanos;
+		}
+	}
+
+	/**
+	 * Number of reads of one thread until the next check of the age of the cached value.
+	 */
+	private static final class ReadCounter {
+		int untilCheck;
+	}
+
+	/**
+	 * Cleaning action stopping the ticker thread, which does not reference the clock itself.
+	 */
+	private static final class Stopper implements Runnable {
+		private final TickState state;
+		private final Thread ticker;
+
+		Stopper(TickState state, Thread ticker) {
+			this.state = state;
+			this.ticker = ticker;
+		}
+
+		@Override
+		public void run() {
+			state.closed = true;
+			LockSupport.unpark(ticker);
+		}
+	}
+
+	/**
+	 * Task of the ticker thread, which does not reference the clock itself, so an unreachable clock can be cleaned up.
+	 */
+	private static final class Ticker implements Runnable {
+		private final TickState state;
+		private final Clock source;
+		private final long periodNanos;
+
+		Ticker(TickState state, Clock source, long periodNanos) {
+			this.state = state;
+			this.source = source;
+			this.periodNanos = periodNanos;
+		}
+
+		@Override
+		public void run() {
+			while (!state.closed) {
+				LockSupport.parkNanos(periodNanos);
+				state.update(source);
+			}
+		}
+	}
+
+}
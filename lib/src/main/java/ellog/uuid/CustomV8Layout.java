@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+/**
+ * Declarative bit layout for vendor-specific UUIDs according to version 8.
+ *
+ * The 122 payload bits of a version 8 UUID (all bits except version and variant) are split into four fields which are
+ * laid out from the most significant to the least significant bit:
+ * <pre>
+ *   | timestamp | worker | sequence | random |
+ * </pre>
+ * The width of the random field is the remainder of the 122 payload bits.
+ * As the timestamp is placed in the leading bits, UUIDs built with the same layout are ordered by time.
+ *
+ * <p>When the layout is created, the shift and mask values for each field are computed once, so that encoding and
+ * decoding a UUID is a fixed sequence of shift and mask operations without any further branching on the layout.</p>
+ *
+ * @see CustomV8Supplier
+ */
+public final class CustomV8Layout {
+
+	/** The number of bits available for the fields of a version 8 UUID. */
+	public static final int PAYLOAD_BITS = 122;
+	/** The epoch used by the original Snowflake ids (2010-11-04T01:42:54.657Z) in milliseconds. */
+	public static final long SNOWFLAKE_EPOCH = 1288834974657L;
+
+	private static final int LOW_BITS = 62;
+	private static final long LOW_MASK = (1L << LOW_BITS) - 1;
+
+	private final int timestampBits;
+	private final int workerBits;
+	private final int sequenceBits;
+	private final int randomBits;
+	private final long epochMillis;
+
+	private final Field timestampField;
+	private final Field workerField;
+	private final Field sequenceField;
+	private final long randomLowMask;
+	private final long randomHighMask;
+
+	/**
+	 * Create a new layout with the given field widths.
+	 *
+	 * @param timestampBits The number of bits of the millisecond timestamp.
+	 * @param workerBits The number of bits of the worker id.
+	 * @param sequenceBits The number of bits of the sequence number.
+	 * @param epochMillis The epoch in milliseconds since 1970-01-01T00:00:00Z from which the timestamp is counted.
+	 * @throws IllegalArgumentException If a width is negative or larger than 64 bits, or if the fields exceed the
+	 *     122 payload bits.
+	 */
+	public CustomV8Layout(int timestampBits, int workerBits, int sequenceBits, long epochMillis) {
+		checkWidth("timestamp", timestampBits);
+		checkWidth("worker", workerBits);
+		checkWidth("sequence", sequenceBits);
+		int usedBits = timestampBits + workerBits + sequenceBits;
+		if (usedBits > PAYLOAD_BITS) {
+			throw new IllegalArgumentException("Layout needs " + usedBits + " bits, but only " + PAYLOAD_BITS + " are available.");
+		}
+
+		this.timestampBits = timestampBits;
+		this.workerBits = workerBits;
+		this.sequenceBits = sequenceBits;
+		this.randomBits = PAYLOAD_BITS - usedBits;
+		this.epochMillis = epochMillis;
+
+		this.timestampField = new Field(timestampBits, PAYLOAD_BITS - timestampBits);
+		this.workerField = new Field(workerBits, timestampField.shift - workerBits);
+		this.sequenceField = new Field(sequenceBits, workerField.shift - sequenceBits);
+		this.randomLowMask = mask(Math.min(randomBits, LOW_BITS));
+		this.randomHighMask = mask(Math.max(0, randomBits - LOW_BITS));
+	}
+
+	/**
+	 * Create a layout similar to Snowflake ids.
+	 *
+	 * The layout uses a 41 bit millisecond timestamp starting at the {@link #SNOWFLAKE_EPOCH}, a 10 bit worker id and a
+	 * 12 bit sequence number.
+	 * The remaining 59 bits are filled with random data.
+	 *
+	 * @return The Snowflake-like layout.
+	 */
+	public static CustomV8Layout snowflake() {
+		return new CustomV8Layout(41, 10, 12, SNOWFLAKE_EPOCH);
+	}
+
+	private static void checkWidth(String name, int width) {
+		if (width < 0 || width > Long.SIZE) {
+			throw new IllegalArgumentException("Invalid width of the " + name + " field: " + width);
+		}
+	}
+
+	private static long mask(int width) {
+		return width == Long.SIZE ? -1L : (1L << width) - 1;
+	}
+
+	/**
+	 * Placement of a single field in the payload.
+	 *
+	 * The payload is kept in two numbers, the high part holding the upper 60 bits and the low part holding the lower
+	 * 62 bits.
+	 * A field may span both parts, so the shift values for both parts are precomputed.
+	 */
+	private static final class Field {
+		final long valueMask;
+		final int shift;
+		final int highLeft;
+		final int highRight;
+		final int lowShift;
+		final long lowMask;
+
+		Field(int width, int shift) {
+			this.valueMask = mask(width);
+			this.shift = shift;
+			if (shift >= LOW_BITS) {
+				this.highLeft = shift - LOW_BITS;
+				this.highRight = 0;
+				this.lowShift = 0;
+				this.lowMask = 0;
+			} else {
+				this.highLeft = 0;
+				this.highRight = LOW_BITS - shift;
+				this.lowShift = shift;
+				this.lowMask = (valueMask << shift) & LOW_MASK;
+			}
+		}
+
+		long high(long value) {
+			return ((value & valueMask) << highLeft) >>> highRight;
+		}
+
+		long low(long value) {
+			return ((value & valueMask) << lowShift) & lowMask;
+		}
+
+		long extract(long high, long low) {
+			return (((high << highRight) >>> highLeft) | ((low & lowMask) >>> lowShift)) & valueMask;
+		}
+	}
+
+	/**
+	 * Get the number of bits of the timestamp field.
+	 * @return The number of bits of the timestamp field.
+	 */
+	public int timestampBits() {
+		return timestampBits;
+	}
+
+	/**
+	 * Get the number of bits of the worker field.
+	 * @return The number of bits of the worker field.
+	 */
+	public int workerBits() {
+		return workerBits;
+	}
+
+	/**
+	 * Get the number of bits of the sequence field.
+	 * @return The number of bits of the sequence field.
+	 */
+	public int sequenceBits() {
+		return sequenceBits;
+	}
+
+	/**
+	 * Get the number of bits of the random field.
+	 * @return The number of bits of the random field.
+	 */
+	public int randomBits() {
+		return randomBits;
+	}
+
+	/**
+	 * Get the epoch from which the timestamp is counted.
+	 * @return The epoch in milliseconds since 1970-01-01T00:00:00Z.
+	 */
+	public long epochMillis() {
+		return epochMillis;
+	}
+
+	/**
+	 * Get the largest worker id which fits into the layout.
+	 * @return The largest worker id.
+	 */
+	public long maxWorker() {
+		return workerField.valueMask;
+	}
+
+	/**
+	 * Get the largest sequence number which fits into the layout.
+	 * @return The largest sequence number.
+	 */
+	public long maxSequence() {
+		return sequenceField.valueMask;
+	}
+
+	/**
+	 * Get the largest timestamp relative to the epoch which fits into the layout.
+	 * @return The largest timestamp.
+	 */
+	public long maxTimestamp() {
+		return timestampField.valueMask;
+	}
+
+	/**
+	 * Compute the upper 60 bits of the payload.
+	 *
+	 * @param timestamp The timestamp relative to the epoch.
+	 * @param worker The worker id.
+	 * @param sequence The sequence number.
+	 * @param random Random data for the random field bits not covered by the lower part.
+	 * @return The upper 60 bits of the payload.
+	 */
+	long payloadHigh(long timestamp, long worker, long sequence, long random) {
+		return timestampField.high(timestamp)
+			| workerField.high(worker)
+			| sequenceField.high(sequence)
+			| (random & randomHighMask);
+	}
+
+	/**
+	 * Compute the lower 62 bits of the payload.
+	 *
+	 * @param timestamp The timestamp relative to the epoch.
+	 * @param worker The worker id.
+	 * @param sequence The sequence number.
+	 * @param random Random data for the random field bits.
+	 * @return The lower 62 bits of the payload.
+	 */
+	long payloadLow(long timestamp, long worker, long sequence, long random) {
+		return timestampField.low(timestamp)
+			| workerField.low(worker)
+			| sequenceField.low(sequence)
+			| (random & randomLowMask);
+	}
+
+	/**
+	 * Check if the random field needs bits from the upper part of the payload.
+	 * @return True if the random field is wider than 62 bits.
+	 */
+	boolean hasHighRandom() {
+		return randomHighMask != 0;
+	}
+
+	private static long payloadHigh(UUID uuid) {
+		long msb = uuid.getMostSignificantBits();
+		return ((msb >>> 16) << 12) | (msb & 0x0FFF);
+	}
+
+	private static long payloadLow(UUID uuid) {
+		return uuid.getLeastSignificantBits() & LOW_MASK;
+	}
+
+	/**
+	 * Extract the timestamp of a UUID built with this layout.
+	 * @param uuid The UUID to read.
+	 * @return The timestamp in milliseconds since 1970-01-01T00:00:00Z.
+	 */
+	public long timestampMillis(UUID uuid) {
+		return timestampField.extract(payloadHigh(uuid), payloadLow(uuid)) + epochMillis;
+	}
+
+	/**
+	 * Extract the worker id of a UUID built with this layout.
+	 * @param uuid The UUID to read.
+	 * @return The worker id.
+	 */
+	public long worker(UUID uuid) {
+		return workerField.extract(payloadHigh(uuid), payloadLow(uuid));
+	}
+
+	/**
+	 * Extract the sequence number of a UUID built with this layout.
+	 * @param uuid The UUID to read.
+	 * @return The sequence number.
+	 */
+	public long sequence(UUID uuid) {
+		return sequenceField.extract(payloadHigh(uuid), payloadLow(uuid));
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.util.function.Supplier;
+
+/**
+ * This class generates vendor-specific UUIDs according to version 8 based on a {@link CustomV8Layout}.
+ *
+ * The UUIDs carry a millisecond timestamp, a fixed worker id and a sequence number, so they can be routed to a shard
+ * or worker without a lookup.
+ * The sequence number is the collision counter of the time provider.
+ * If the sequence field is exhausted within one millisecond, the timestamp of the next millisecond is used, so the
+ * timestamps may run ahead of the clock for a short time.
+ */
+public class CustomV8Supplier extends StandardUUIDSupplierBase implements Cloneable {
+
+	/**
+	 * The layout of the generated UUIDs.
+	 */
+	protected final CustomV8Layout layout;
+	/**
+	 * The provider of the current time and sequence value.
+	 */
+	protected final TimeProviderV7 timeProvider;
+	/**
+	 * The worker id written into each UUID.
+	 */
+	protected final long worker;
+
+	@Override
+	public CustomV8Supplier clone() {
+		try {
+			return (CustomV8Supplier) super.clone();
+		} catch (CloneNotSupportedException ex) {
+			throw new RuntimeException("Cloning of CustomV8Supplier failed.", ex);
+		}
+	}
+
+	/**
+	 * Create a new version 8 UUID supplier.
+	 *
+	 * @param layout The layout of the generated UUIDs.
+	 * @param worker The worker id written into each UUID.
+	 * @param timeProvider The provider of the current time and sequence value.
+	 * @throws IllegalArgumentException If the worker id does not fit into the layout.
+	 */
+	public CustomV8Supplier(CustomV8Layout layout, long worker, TimeProviderV7 timeProvider) {
+		super(StandardVersion.VENDOR_SPECIFIC);
+		if (worker < 0 || worker > layout.maxWorker()) {
+			throw new IllegalArgumentException("Worker id " + worker + " does not fit into " + layout.workerBits() + " bits.");
+		}
+		this.layout = layout;
+		this.worker = worker;
+		this.timeProvider = timeProvider;
+	}
+
+	/**
+	 * Create a new version 8 UUID supplier using a synchronized time provider.
+	 *
+	 * @param layout The layout of the generated UUIDs.
+	 * @param worker The worker id written into each UUID.
+	 * @throws IllegalArgumentException If the worker id does not fit into the layout.
+	 */
+	public CustomV8Supplier(CustomV8Layout layout, long worker) {
+		this(layout, worker, TimeProviderV7.create());
+	}
+
+	/**
+	 * Get the layout of the generated UUIDs.
+	 * @return The layout.
+	 */
+	public CustomV8Layout getLayout() {
+		return layout;
+	}
+
+	@Override
+	public StandardUUID get() {
+		TimeProviderV7.TimeAndCounter tc = timeProvider.getNext(layout.sequenceBits());
+		long ts = tc.time - layout.epochMillis();
+		if (ts < 0 || ts > layout.maxTimestamp()) {
+			throw new IllegalStateException("Current time can not be represented in " + layout.timestampBits() + " bits.");
+		}
+		long seq = tc.counter;
+
+		Supplier<StandardUUID> buildFun = () -> {
+			long rndLow = builder.getSecRandom().nextLong();
+			long rndHigh = layout.hasHighRandom() ? builder.getSecRandom().nextLong() : 0;
+			long high = layout.payloadHigh(ts, worker, seq, rndHigh);
+			long low = layout.payloadLow(ts, worker, seq, rndLow);
+			// the builder places the 60 high bits around the version and the 62 low bits behind the variant
+			return builder.setTimestamp(high)
+				.setClockSequence((int) (low >>> 48))
+				.setNode(low)
+				.build();
+		};
+		if (isSynchronized()) {
+			synchronized (builder) {
+				return buildFun.get();
+			}
+		} else {
+			return buildFun.get();
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+/**
+ * Conversion between unsigned 128 bit numbers and their decimal representation.
+ *
+ * The number is processed as four 32 bit limbs, so that all intermediate values of the division fit into a long and no
+ * {@link java.math.BigInteger} is needed.
+ */
+final class Decimal128 {
+
+	/** The maximum number of decimal digits of an unsigned 128 bit number. */
+	static final int MAX_DIGITS = 39;
+
+	private static final long LIMB_MASK = 0xFFFFFFFFL;
+	private static final long CHUNK_DIVISOR = 1_000_000_000L;
+	private static final int CHUNK_DIGITS = 9;
+
+	private Decimal128() {
+	}
+
+	/**
+	 * Render the unsigned 128 bit number as decimal string.
+	 *
+	 * @param prefix Characters to put in front of the number.
+	 * @param hi The most significant 64 bits of the number.
+	 * @param lo The least significant 64 bits of the number.
+	 * @return The prefix followed by the decimal representation.
+	 */
+	static String toString(String prefix, long hi, long lo) {
+		char[] buf = new char[prefix.length() + MAX_DIGITS];
+		prefix.getChars(0, prefix.length(), buf, 0);
+		int pos = buf.length;
+
+		long l3 = hi >>> 32;
+		long l2 = hi & LIMB_MASK;
+		long l1 = lo >>> 32;
+		long l0 = lo & LIMB_MASK;
+		do {
+			// divide the limbs by 10^9, the remainder of each step is smaller than 2^30, so no step exceeds 62 bits
+			long t = l3;
+			l3 = t / CHUNK_DIVISOR;
+			t = (t % CHUNK_DIVISOR) << 32 | l2;
+			l2 = t / CHUNK_DIVISOR;
+			t = (t % CHUNK_DIVISOR) << 32 | l1;
+			l1 = t / CHUNK_DIVISOR;
+			t = (t % CHUNK_DIVISOR) << 32 | l0;
+			l0 = t / CHUNK_DIVISOR;
+			int chunk = (int) (t % CHUNK_DIVISOR);
+
+			boolean last = (l3 | l2 | l1 | l0) == 0;
+			for (int i = 0; i < CHUNK_DIGITS && (!last || chunk != 0 || i == 0); i++) {
+				buf[--pos] = (char) ('0' + chunk % 10);
+				chunk /= 10;
+			}
+			if (last) {
+				break;
+			}
+		} while (true);
+
+		int numDigits = buf.length - pos;
+		System.arraycopy(buf, pos, buf, prefix.length(), numDigits);
+		return new String(buf, 0, prefix.length() + numDigits);
+	}
+
+	/**
+	 * Parse a decimal number into a UUID.
+	 *
+	 * The number must be in canonical form, so leading zeros are only allowed for the number {@code 0} itself, as
+	 * required for OID arcs by X.660.
+	 *
+	 * @param s The characters containing the number.
+	 * @param from The index of the first digit.
+	 * @return The UUID with the number as its value.
+	 * @throws IllegalArgumentException If the characters are not a decimal number or exceed 128 bits.
+	 */
+	static UUID parse(CharSequence s, int from) {
+		int to = s.length();
+		if (from >= to) {
+			throw new IllegalArgumentException("Provided input does not contain a decimal number.");
+		}
+		if (s.charAt(from) == '0' && to - from > 1) {
+			throw new IllegalArgumentException("Provided decimal number has leading zeros.");
+		}
+		long hi = 0;
+		long lo = 0;
+		for (int i = from; i < to; i++) {
+			int digit = s.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IllegalArgumentException("Provided input is not a decimal number.");
+			}
+			// (hi, lo) * 10 + digit, checking for overflow of the upper half
+			long loHigh = Math.multiplyHigh(lo, 10) + ((lo >> 63) & 10);
+			if (Long.compareUnsigned(hi, 0x1999999999999999L) > 0) {
+				throw overflow();
+			}
+			long newHi = hi * 10;
+			long sumHi = newHi + loHigh;
+			if (Long.compareUnsigned(sumHi, newHi) < 0) {
+				throw overflow();
+			}
+			long newLo = lo * 10 + digit;
+			if (Long.compareUnsigned(newLo, lo * 10) < 0) {
+				sumHi++;
+				if (sumHi == 0) {
+					throw overflow();
+				}
+			}
+			hi = sumHi;
+			lo = newLo;
+		}
+		return UUID.fromLongs(hi, lo);
+	}
+
+	private static IllegalArgumentException overflow() {
+		return new IllegalArgumentException("Provided number exceeds the range of a UUID.");
+	}
+
+}
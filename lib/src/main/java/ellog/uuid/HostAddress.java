@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Enumeration;
+
+/**
+ * Hardware address of the host, which is looked up only once per JVM.
+ *
+ * Enumerating the network interfaces can take tens to hundreds of milliseconds, for example in containers, so the
+ * result is shared by all suppliers.
+ */
+final class HostAddress {
+
+	/** Value returned if no interface with a usable hardware address exists. */
+	static final long NONE = -1;
+	private static final long UNKNOWN = -2;
+
+	private static final Object LOCK = new Object();
+	private static volatile long address = UNKNOWN;
+
+	private HostAddress() {
+	}
+
+	/**
+	 * Get the hardware address of the first network interface which is up and not a loopback interface.
+	 *
+	 * The first call performs the lookup, all other calls return the cached value.
+	 *
+	 * @return The 48 bit address, or {@link #NONE} if no interface can be used.
+	 */
+	static long get() {
+		long result = address;
+		if (result == UNKNOWN) {
+			synchronized (LOCK) {
+				result = address;
+				if (result == UNKNOWN) {
+					result = lookup();
+					address = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Check if the address has already been looked up, so that {@link #get()} returns without blocking.
+	 * @return True if the address is known.
+	 */
+	static boolean isResolved() {
+		return address != UNKNOWN;
+	}
+
+	private static long lookup() {
+		try {
+			Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+			while (interfaces != null && interfaces.hasMoreElements()) {
+				NetworkInterface next = interfaces.nextElement();
+				// TODO: find out if we should reject virtual or sub-interfaces
+				if (!next.isLoopback() && next.isUp()) {
+					byte[] hwAddr = next.getHardwareAddress();
+					// interfaces with other address formats, such as EUI-64, can not be used as node value
+					if (hwAddr != null && hwAddr.length == 6) {
+						long result = 0;
+						for (byte b : hwAddr) {
+							result = result << 8 | (b & 0xFF);
+						}
+						return result;
+					}
+				}
+			}
+		} catch (SocketException e) {
+			// ignore and use the fallback
+		}
+		return NONE;
+	}
+
+}
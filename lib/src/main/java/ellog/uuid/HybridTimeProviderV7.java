@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time provider for version 7 UUIDs implementing a hybrid logical clock.
+ *
+ * The provider combines the physical clock with the timestamps of UUIDs received from other nodes.
+ * After a remote UUID has been observed with {@link #observe(UUID)}, all UUIDs generated with this provider are
+ * greater than the remote UUID, even if the clock of the remote node is ahead of the local clock.
+ * This makes UUIDs of causally related events ordered across nodes without an external service:
+ * <pre>
+ *   HybridTimeProviderV7 clock = new HybridTimeProviderV7();
+ *   TimeV7Supplier supplier = new TimeV7Supplier(clock, 12);
+ *   ...
+ *   clock.observe(receivedUuid);
+ *   StandardUUID reply = supplier.get(); // reply is greater than receivedUuid
+ * </pre>
+ *
+ * <p>The logical time never runs ahead of the local clock by more than the maximum drift because of remote
+ * timestamps.
+ * Remote timestamps exceeding this bound are rejected, so a single node with a broken clock can not move the time of
+ * all other nodes into the future.
+ * The local time may still run ahead, when more UUIDs are requested within one millisecond than the counter can hold,
+ * like with {@link TimeProviderV7}.</p>
+ *
+ * <p>The state consists of the millisecond timestamp and a 16 bit counter packed into one atomic value, which is
+ * updated without locks.
+ * The fields {@link #lastMillis} and {@link #counter} of the base class are not used.</p>
+ */
+public class HybridTimeProviderV7 extends TimeProviderV7 {
+
+	/** The default maximum drift between the logical time and the local clock in milliseconds. */
+	public static final long DEFAULT_MAX_DRIFT_MILLIS = 1000;
+
+	private static final int COUNTER_BITS = 16;
+	private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+
+	private final long maxDriftMillis;
+	/** The last timestamp shifted by 16 bits combined with the last counter value. */
+	private final AtomicLong state = new AtomicLong();
+	/** The largest observed value in the same format as the state. */
+	private final AtomicLong observed = new AtomicLong();
+
+	/**
+	 * Create a new provider with the default maximum drift.
+	 */
+	public HybridTimeProviderV7() {
+		this(DEFAULT_MAX_DRIFT_MILLIS);
+	}
+
+	/**
+	 * Create a new provider with the given maximum drift.
+	 * @param maxDriftMillis The largest amount of milliseconds an observed timestamp may be ahead of the local clock.
+	 * @throws IllegalArgumentException If the maximum drift is negative.
+	 */
+	public HybridTimeProviderV7(long maxDriftMillis) {
+		if (maxDriftMillis < 0) {
+			throw new IllegalArgumentException("The maximum drift must not be negative.");
+		}
+		this.maxDriftMillis = maxDriftMillis;
+	}
+
+	/**
+	 * Get the maximum drift between the logical time and the local clock.
+	 * @return The maximum drift in milliseconds.
+	 */
+	public long getMaxDriftMillis() {
+		return maxDriftMillis;
+	}
+
+	/**
+	 * Reserve a range of consecutive counter values with a single atomic update.
+	 *
+	 * The counter is limited to 16 bits, further values use the timestamp of the next millisecond.
+	 *
+	 * @param n The number of counter values to reserve.
+	 * @param counterBits The number of bits available for the counter value.
+	 * @return The timestamp, the first counter value and the number of reserved values.
+	 * @throws IllegalArgumentException If the number of values is not positive.
+	 */
+	@Override
+	public Reservation reserve(int n, int counterBits) {
+		if (n < 1) {
+			throw new IllegalArgumentException("At least one value must be reserved.");
+		}
+		int maxCounter = Math.min(maxCounter(counterBits), MAX_COUNTER);
+		long millis = clock.millis();
+		while (true) {
+			long current = state.get();
+			long lastMillis = current >>> COUNTER_BITS;
+			int lastCounter = (int) current & MAX_COUNTER;
+			long nextMillis;
+			int first;
+			if (millis > lastMillis) {
+				nextMillis = millis;
+				first = 0;
+			} else if (lastCounter >= maxCounter) {
+				// counter exhausted, borrow the next millisecond
+				nextMillis = lastMillis + 1;
+				first = 0;
+			} else {
+				nextMillis = lastMillis;
+				first = lastCounter + 1;
+			}
+			int count = Math.min(n, maxCounter - first + 1);
+			if (state.compareAndSet(current, nextMillis << COUNTER_BITS | (first + count - 1))) {
+				return new Reservation(nextMillis, first, count);
+			}
+		}
+	}
+
+	/**
+	 * Check if a reserved value may still be used.
+	 *
+	 * In addition to the check of the base class, values reserved before a greater value was observed are outdated,
+	 * so that UUIDs built after {@link #observe(long, int)} returned are greater than the observed value.
+	 *
+	 * @param time The timestamp of the reserved value.
+	 * @param counter The counter value.
+	 * @return True if the value may be used.
+	 */
+	@Override
+	public boolean isCurrent(long time, int counter) {
+		return super.isCurrent(time, counter) && (time << COUNTER_BITS | counter) > observed.get();
+	}
+
+	/**
+	 * Observe a UUID generated on another node.
+	 *
+	 * The timestamp and the 12 bit {@code rand_a} field are used as counter value, which matches UUIDs generated by a
+	 * {@link TimeV7Supplier} with a counter length of 12 bits.
+	 * If the local supplier uses the same layout, all UUIDs generated after this method returns {@code true} are
+	 * greater than the observed UUID.
+	 * UUIDs of other versions are ignored.
+	 *
+	 * @param remote The UUID received from another node.
+	 * @return False if the timestamp of the UUID is further ahead of the local clock than the maximum drift.
+	 * @see #observe(long, int)
+	 */
+	public boolean observe(UUID remote) {
+		long msb = remote.getMostSignificantBits();
+		if (UUIDBits.version(msb) != 7) {
+			return true;
+		}
+		return observe(UUIDBits.v7Millis(msb), (int) msb & 0x0FFF);
+	}
+
+	/**
+	 * Observe a timestamp and counter value received from another node.
+	 *
+	 * The logical time is moved forward to the given values, so that all following values of {@link #getNext(int)}
+	 * are greater.
+	 * Values which are not ahead of the current logical time are ignored.
+	 *
+	 * @param millis The remote timestamp in milliseconds since the unix epoch.
+	 * @param counter The remote counter value, values exceeding 16 bits are treated as the largest 16 bit value.
+	 * @return False if the timestamp is further ahead of the local clock than the maximum drift, in which case the
+	 *     logical time is not changed.
+	 */
+	public boolean observe(long millis, int counter) {
+		if (millis - clock.millis() > maxDriftMillis) {
+			return false;
+		}
+		long value = millis << COUNTER_BITS | Math.min(Math.max(0, counter), MAX_COUNTER);
+		state.accumulateAndGet(value, Math::max);
+		observed.accumulateAndGet(value, Math::max);
+		return true;
+	}
+
+}
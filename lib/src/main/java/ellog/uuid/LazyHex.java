@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Validated standard string representation of a UUID, which is decoded on demand.
+ *
+ * The source is either a character sequence or 36 ASCII characters in a byte array.
+ * Only the 36 characters of the UUID are copied from the source, so the UUID does not retain a larger source, such as
+ * the line or buffer it has been parsed from.
+ * The UUID subclasses in this class keep the characters and only decode them when the octets are accessed.
+ */
+final class LazyHex {
+
+	private final String chars;
+	private final byte[] bytes;
+
+	/**
+	 * Create a source from a validated character sequence.
+	 * @param chars The characters of the UUID.
+	 */
+	LazyHex(CharSequence chars) {
+		// a string is immutable and already has the exact length, any other sequence is copied
+		this.chars = chars.toString();
+		this.bytes = null;
+	}
+
+	/**
+	 * Create a source from validated ASCII characters.
+	 * @param bytes The array containing the characters of the UUID.
+	 * @param offset The offset of the first character.
+	 */
+	LazyHex(byte[] bytes, int offset) {
+		this.chars = null;
+		this.bytes = Arrays.copyOfRange(bytes, offset, offset + BatchHexParser.HEX_LENGTH);
+	}
+
+	/**
+	 * Create the UUID object matching the variant of the source.
+	 * @param source The source of the UUID.
+	 * @return The lazily decoded UUID.
+	 */
+	static UUID create(LazyHex source) {
+		// the variant is encoded in the first hex digit of the clock sequence
+		int digit = source.chars != null ? source.chars.charAt(19) : source.bytes[19];
+		switch (Variant.fromVariantOctet(BatchHexParser.hexValue(digit) << 4)) {
+			case RFC_4122:
+				return new Standard(source);
+			case MICROSOFT:
+			case RESERVED:
+			case NCS:
+			default:
+				return new Unknown(source);
+		}
+	}
+
+	/**
+	 * Decode the octets of the UUID.
+	 * @return A new buffer containing the 16 octets.
+	 */
+	ByteBuffer decode() {
+		ByteBuffer buf = ByteBuffer.allocate(16);
+		if (chars != null) {
+			buf.putLong(0, BatchHexParser.decodeMsb(chars));
+			buf.putLong(8, BatchHexParser.decodeLsb(chars));
+		} else {
+			buf.putLong(0, BatchHexParser.decodeMsb(bytes, 0));
+			buf.putLong(8, BatchHexParser.decodeLsb(bytes, 0));
+		}
+		return buf;
+	}
+
+	/**
+	 * Get the source as string, if it is the canonical lowercase representation.
+	 * @return The source string, or null if it contains uppercase characters.
+	 */
+	String canonicalString() {
+		if (chars != null) {
+			return BatchHexParser.hasUpperCase(chars) ? null : chars;
+		} else {
+			return BatchHexParser.hasUpperCase(bytes, 0) ? null : new String(bytes, StandardCharsets.US_ASCII);
+		}
+	}
+
+	private static final class Standard extends StandardUUID {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient LazyHex source;
+
+		Standard(LazyHex source) {
+			this.source = source;
+		}
+
+		@Override
+		ByteBuffer decodeDataBuf() {
+			return source.decode();
+		}
+
+		@Override
+		public String toString() {
+			String canonical = source.canonicalString();
+			return canonical != null ? canonical : super.toString();
+		}
+	}
+
+	private static final class Unknown extends UnknownUUID {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient LazyHex source;
+
+		Unknown(LazyHex source) {
+			this.source = source;
+		}
+
+		@Override
+		ByteBuffer decodeDataBuf() {
+			return source.decode();
+		}
+
+		@Override
+		public String toString() {
+			String canonical = source.canonicalString();
+			return canonical != null ? canonical : super.toString();
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.IOException;
+
+/**
+ * Exception indicating that a row of a UUID stream does not satisfy the standard UUID string representation.
+ *
+ * @see UUIDReader
+ */
+public class MalformedUUIDException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The offset of the first octet of the malformed row in the stream. */
+	private final long offset;
+	/** The length of the malformed row in octets. */
+	private final int length;
+
+	/**
+	 * Create a new exception for the given row.
+	 * @param offset The offset of the first octet of the malformed row in the stream.
+	 * @param length The length of the malformed row in octets.
+	 */
+	public MalformedUUIDException(long offset, int length) {
+		super("Malformed UUID of " + length + " octets at offset " + offset + ".");
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Get the offset of the malformed row.
+	 * @return The offset of the first octet of the malformed row in the stream.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Get the length of the malformed row.
+	 * @return The length of the malformed row in octets.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+}
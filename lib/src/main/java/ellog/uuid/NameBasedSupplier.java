@@ -35,14 +35,14 @@ import java.util.function.Supplier;
  */
 public class NameBasedSupplier extends StandardUUIDSupplierBase implements Cloneable {
 
-	/** The namespace UUID for DNS names according to RFC 4122 Appendix C. */
-	public static final StandardUUID NS_DNS = StandardUUID.parseHex("6ba7b810-9dad-11d1-80b4-00c04fd430c8");
-	/** The namespace UUID for URLs according to RFC 4122 Appendix C. */
-	public static final StandardUUID NS_URL = StandardUUID.parseHex("6ba7b811-9dad-11d1-80b4-00c04fd430c8");
-	/** The namespace UUID for OIDs according to RFC 4122 Appendix C. */
-	public static final StandardUUID NS_OID = StandardUUID.parseHex("6ba7b812-9dad-11d1-80b4-00c04fd430c8");
-	/** The namespace UUID for X.500 DNs according to RFC 4122 Appendix C. */
-	public static final StandardUUID NS_X500 = StandardUUID.parseHex("6ba7b814-9dad-11d1-80b4-00c04fd430c8");
+	/** The namespace UUID for DNS names ({@code 6ba7b810-9dad-11d1-80b4-00c04fd430c8}) according to RFC 4122 Appendix C. */
+	public static final StandardUUID NS_DNS = new StandardUUID(0x6ba7b8109dad11d1L, 0x80b400c04fd430c8L);
+	/** The namespace UUID for URLs ({@code 6ba7b811-9dad-11d1-80b4-00c04fd430c8}) according to RFC 4122 Appendix C. */
+	public static final StandardUUID NS_URL = new StandardUUID(0x6ba7b8119dad11d1L, 0x80b400c04fd430c8L);
+	/** The namespace UUID for OIDs ({@code 6ba7b812-9dad-11d1-80b4-00c04fd430c8}) according to RFC 4122 Appendix C. */
+	public static final StandardUUID NS_OID = new StandardUUID(0x6ba7b8129dad11d1L, 0x80b400c04fd430c8L);
+	/** The namespace UUID for X.500 DNs ({@code 6ba7b814-9dad-11d1-80b4-00c04fd430c8}) according to RFC 4122 Appendix C. */
+	public static final StandardUUID NS_X500 = new StandardUUID(0x6ba7b8149dad11d1L, 0x80b400c04fd430c8L);
 
 	/** The message digest used to calculate the hash. */
 	protected MessageDigest digest;
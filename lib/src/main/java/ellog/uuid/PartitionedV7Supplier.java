@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * This class generates ordered time-based UUIDs according to version 7 without coordination between threads.
+ *
+ * Every thread using the supplier owns its time and counter state and its random number generator, so generating a
+ * UUID needs no lock or atomic operation shared with other threads.
+ * To keep the UUIDs of different threads apart, each thread is assigned a slot number when it first uses the
+ * supplier, which is stored in the most significant bits of the {@code rand_b} field.
+ * The layout of the UUIDs is:
+ * <pre>
+ *   unix_ts_ms (48) | ver (4) | counter (12) | var (2) | slot (slotBits) | random (62 - slotBits)
+ * </pre>
+ *
+ * <p>The UUIDs have the following guarantees:</p>
+ * <ul>
+ * <li>UUIDs generated by one thread are strictly increasing.
+ *   If a thread requests more than 4096 UUIDs within one millisecond, or the clock goes backwards, the thread
+ *   continues with the timestamps of the following milliseconds until the clock catches up.</li>
+ * <li>UUIDs of threads with different slots never collide.
+ *   A thread gets a slot when it first uses the supplier.
+ *   The slot of a terminated thread is handed to the next new thread, together with the time and counter state of
+ *   the terminated thread, so the new thread continues after the last UUID of that slot.
+ *   The slots are therefore distinct as long as no more than {@code 2^slotBits} threads which have used the supplier
+ *   are alive at the same time, even if thread pools replace their threads over the lifetime of the process.
+ *   Beyond that, slots are shared, and UUIDs of threads sharing a slot are only kept apart by their
+ *   {@code 62 - slotBits} random bits, like version 4 UUIDs.</li>
+ * <li>UUIDs of different threads are ordered by their millisecond only: a UUID generated after another UUID has a
+ *   timestamp which is not smaller, unless the thread of the earlier UUID was ahead of the clock as described above.
+ *   Within the same millisecond the order of UUIDs of different threads is unspecified.</li>
+ * </ul>
+ *
+ * <p>This class is thread-safe.
+ * The state of a thread is kept as long as the supplier is alive, so that it can be handed to a later thread.</p>
+ *
+ * @see TimeV7Supplier
+ */
+public class PartitionedV7Supplier implements Supplier<StandardUUID> {
+
+	/** The default number of slot bits, allowing 256 threads with distinct slots. */
+	public static final int DEFAULT_SLOT_BITS = 8;
+	/** The largest number of slot bits, leaving 30 random bits. */
+	public static final int MAX_SLOT_BITS = 32;
+
+	private static final int COUNTER_BITS = 12;
+	private static final int RAND_B_BITS = 62;
+	/** Number of random octets fetched from the random generator at once. */
+	private static final int RANDOM_POOL_SIZE = 256;
+
+	private final int slotBits;
+	private final Clock clock;
+	private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(this::newThreadState);
+
+	/** Number of slots handed out for the first time, guarded by {@code owners}. */
+	private long nextSlot = 0;
+	/** The threads owning a slot, guarded by itself. */
+	private final List<Owner> owners = new ArrayList<>();
+	/** The states of terminated threads, whose slots can be handed out again, guarded by {@code owners}. */
+	private final ArrayDeque<ThreadState> released = new ArrayDeque<>();
+
+	/**
+	 * State owned by a single thread.
+	 *
+	 * The state does not reference the supplier, so that the supplier is not kept alive by the threads which used it.
+	 */
+	private static final class ThreadState {
+		final TimeProviderV7 timeProvider;
+		final long slotField;
+		final SecureRandom random = newRandom();
+		final byte[] pool = new byte[RANDOM_POOL_SIZE];
+		int poolPosition = RANDOM_POOL_SIZE;
+
+		ThreadState(Clock clock, long slotField) {
+			this.timeProvider = TimeProviderV7.create(false).setClock(clock);
+			this.slotField = slotField;
+		}
+
+		long nextRandom() {
+			if (poolPosition == RANDOM_POOL_SIZE) {
+				random.nextBytes(pool);
+				poolPosition = 0;
+			}
+			long value = (long) UUIDBits.LONG_ARRAY_VIEW.get(pool, poolPosition);
+			poolPosition += Long.BYTES;
+			return value;
+		}
+	}
+
+	/**
+	 * A thread and the state of the slot it owns.
+	 */
+	private static final class Owner {
+		final Thread thread;
+		final ThreadState state;
+
+		Owner(Thread thread, ThreadState state) {
+			this.thread = thread;
+			this.state = state;
+		}
+	}
+
+	/**
+	 * Create a new supplier with the default number of slot bits.
+	 */
+	public PartitionedV7Supplier() {
+		this(DEFAULT_SLOT_BITS);
+	}
+
+	/**
+	 * Create a new supplier with the given number of slot bits.
+	 * @param slotBits The number of bits of {@code rand_b} used for the slot of the thread.
+	 * @throws IllegalArgumentException If the number of slot bits is negative or larger than {@link #MAX_SLOT_BITS}.
+	 */
+	public PartitionedV7Supplier(int slotBits) {
+		this(slotBits, Clock.systemUTC());
+	}
+
+	/**
+	 * Create a new supplier with the given number of slot bits and clock.
+	 * @param slotBits The number of bits of {@code rand_b} used for the slot of the thread.
+	 * @param clock The clock used to get the current time.
+	 * @throws IllegalArgumentException If the number of slot bits is negative or larger than {@link #MAX_SLOT_BITS}.
+	 */
+	public PartitionedV7Supplier(int slotBits, Clock clock) {
+		if (slotBits < 0 || slotBits > MAX_SLOT_BITS) {
+			throw new IllegalArgumentException("Number of slot bits must be between 0 and " + MAX_SLOT_BITS + ".");
+		}
+		this.slotBits = slotBits;
+		this.clock = clock;
+	}
+
+	private ThreadState newThreadState() {
+		synchronized (owners) {
+			// release the slots of terminated threads, detecting the termination makes their state visible here
+			for (Iterator<Owner> it = owners.iterator(); it.hasNext(); ) {
+				Owner owner = it.next();
+				if (!owner.thread.isAlive()) {
+					it.remove();
+					released.add(owner.state);
+				}
+			}
+			ThreadState result = released.poll();
+			if (result == null) {
+				long slot = nextSlot++ & ((1L << slotBits) - 1);
+				result = new ThreadState(clock, slotBits == 0 ? 0 : slot << (RAND_B_BITS - slotBits));
+			}
+			owners.add(new Owner(Thread.currentThread(), result));
+			return result;
+		}
+	}
+
+	private static SecureRandom newRandom() {
+		try {
+			// DRBG instances only synchronize on themselves, other implementations may share a global lock
+			return SecureRandom.getInstance("DRBG");
+		} catch (NoSuchAlgorithmException ex) {
+			return new SecureRandom();
+		}
+	}
+
+	/**
+	 * Get the number of bits used for the slot of the generating thread.
+	 * @return The number of slot bits.
+	 */
+	public int slotBits() {
+		return slotBits;
+	}
+
+	/**
+	 * Get the slot of the thread which generated the given UUID.
+	 * @param uuid A UUID generated by a supplier with the same number of slot bits.
+	 * @return The slot number.
+	 */
+	public long slot(UUID uuid) {
+		if (slotBits == 0) {
+			return 0;
+		}
+		return (uuid.getLeastSignificantBits() >>> (RAND_B_BITS - slotBits)) & ((1L << slotBits) - 1);
+	}
+
+	@Override
+	public StandardUUID get() {
+		ThreadState s = state.get();
+		TimeProviderV7.TimeAndCounter tc = s.timeProvider.getNext(COUNTER_BITS);
+		long msb = tc.time << 16 | 0x7000 | tc.counter;
+		long lsb = Long.MIN_VALUE | s.slotField | (s.nextRandom() >>> (2 + slotBits));
+		return new StandardUUID(msb, lsb);
+	}
+
+	/**
+	 * Create an infinite stream of UUIDs generated by this supplier.
+	 * @return The stream of UUIDs.
+	 */
+	public Stream<StandardUUID> toStream() {
+		return Stream.generate(this);
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+/**
+ * The serialized form of all UUID classes.
+ *
+ * UUIDs replace themselves with an instance of this class when they are serialized.
+ * Only the 16 octets of the UUID are written to the stream, without any field descriptors or nested objects.
+ * When read back, the instance is resolved to the UUID class matching the variant.
+ */
+final class SerialForm implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private long msb;
+	private long lsb;
+
+	/**
+	 * Constructor used by the deserialization mechanism.
+	 */
+	public SerialForm() {
+	}
+
+	SerialForm(long msb, long lsb) {
+		this.msb = msb;
+		this.lsb = lsb;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeLong(msb);
+		out.writeLong(lsb);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		msb = in.readLong();
+		lsb = in.readLong();
+	}
+
+	private Object readResolve() throws ObjectStreamException {
+		return UUID.buildVariantObject(msb, lsb);
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+/**
+ * Maps UUIDs to shard indices.
+ *
+ * <p>The router hashes both 64 bit halves of the UUID with a strong mixing function before selecting the shard.
+ * Thereby UUIDs sharing a common prefix, such as the timestamp of version 6 and 7 UUIDs, are still spread evenly over
+ * all shards.
+ * The result depends only on the UUID value and the configuration of the router, so it is stable across processes.</p>
+ *
+ * <p>Two strategies are available:</p>
+ * <ul>
+ *   <li>{@link #jumpConsistent(int)} distributes UUIDs evenly over shards of equal size in constant memory.
+ *   When the number of shards grows from {@code n} to {@code n + 1}, only {@code 1/(n + 1)} of the UUIDs move.</li>
+ *   <li>{@link #weightedRendezvous(double...)} distributes UUIDs proportionally to the weight of each shard.
+ *   When a shard is added or removed, only UUIDs of that shard move.
+ *   The cost of routing grows linearly with the number of shards.</li>
+ * </ul>
+ */
+public abstract class ShardRouter {
+
+	private final int shardCount;
+
+	private ShardRouter(int shardCount) {
+		this.shardCount = shardCount;
+	}
+
+	/**
+	 * Create a router using jump consistent hashing.
+	 *
+	 * @param shardCount The number of shards.
+	 * @return The router instance.
+	 * @throws IllegalArgumentException If the number of shards is not positive.
+	 */
+	public static ShardRouter jumpConsistent(int shardCount) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("The number of shards must be positive.");
+		}
+		return new JumpConsistent(shardCount);
+	}
+
+	/**
+	 * Create a router using weighted rendezvous hashing.
+	 *
+	 * The shard at index {@code i} receives a share of UUIDs proportional to {@code weights[i]}.
+	 * A shard with weight zero receives no UUIDs.
+	 *
+	 * @param weights The weights of the shards.
+	 * @return The router instance.
+	 * @throws IllegalArgumentException If no weights are given, a weight is negative or not finite or all weights are
+	 *     zero.
+	 */
+	public static ShardRouter weightedRendezvous(double... weights) {
+		if (weights.length == 0) {
+			throw new IllegalArgumentException("At least one shard weight must be given.");
+		}
+		boolean anyPositive = false;
+		for (double w : weights) {
+			if (!(w >= 0) || Double.isInfinite(w)) {
+				throw new IllegalArgumentException("Shard weights must be finite and not negative.");
+			}
+			anyPositive |= w > 0;
+		}
+		if (!anyPositive) {
+			throw new IllegalArgumentException("At least one shard weight must be positive.");
+		}
+		return new WeightedRendezvous(weights.clone());
+	}
+
+	/**
+	 * Get the number of shards of this router.
+	 *
+	 * @return The number of shards.
+	 */
+	public int shardCount() {
+		return shardCount;
+	}
+
+	/**
+	 * Get the shard of the UUID.
+	 *
+	 * @param uuid The UUID to route.
+	 * @return The index of the shard in the range {@code [0, shardCount())}.
+	 */
+	public int route(UUID uuid) {
+		return route(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Get the shard of a UUID given by its halves.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The index of the shard in the range {@code [0, shardCount())}.
+	 */
+	public int route(long msb, long lsb) {
+		return routeHash(UUIDBits.hash(msb, lsb));
+	}
+
+	/**
+	 * Get the shards of packed UUIDs.
+	 *
+	 * The UUID with index {@code i} consists of {@code ids[2 * i]} as the most significant and {@code ids[2 * i + 1]}
+	 * as the least significant half.
+	 * Its shard is written to {@code out[i]}.
+	 *
+	 * @param ids The packed UUIDs.
+	 * @param out The array receiving the shard indices.
+	 * @throws IllegalArgumentException If the length of {@code ids} is odd or {@code out} is too short.
+	 */
+	public void route(long[] ids, int[] out) {
+		if ((ids.length & 1) != 0) {
+			throw new IllegalArgumentException("Packed UUIDs must consist of an even number of longs.");
+		}
+		int count = ids.length >>> 1;
+		if (out.length < count) {
+			throw new IllegalArgumentException("Output array is too short for the given UUIDs.");
+		}
+		for (int i = 0; i < count; i++) {
+			out[i] = routeHash(UUIDBits.hash(ids[2 * i], ids[2 * i + 1]));
+		}
+	}
+
+	/**
+	 * Select the shard for the hashed UUID.
+	 *
+	 * @param hash The 64 bit hash of the UUID.
+	 * @return The index of the shard.
+	 */
+	abstract int routeHash(long hash);
+
+	private static final class JumpConsistent extends ShardRouter {
+
+		private JumpConsistent(int shardCount) {
+			super(shardCount);
+		}
+
+		@Override
+		int routeHash(long key) {
+			// Lamping, Veach: A Fast, Minimal Memory, Consistent Hash Algorithm
+			int n = shardCount();
+			long b = -1;
+			long j = 0;
+			while (j < n) {
+				b = j;
+				key = key * 2862933555777941757L + 1;
+				j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+			}
+			return (int) b;
+		}
+	}
+
+	private static final class WeightedRendezvous extends ShardRouter {
+
+		private final double[] weights;
+		private final long[] seeds;
+
+		private WeightedRendezvous(double[] weights) {
+			super(weights.length);
+			this.weights = weights;
+			this.seeds = new long[weights.length];
+			for (int i = 0; i < seeds.length; i++) {
+				seeds[i] = UUIDBits.mix(i * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L);
+			}
+		}
+
+		@Override
+		int routeHash(long hash) {
+			// Schindelhauer, Schomaker: Weighted Distributed Hash Tables
+			// the shard with the highest score w / -ln(u) wins, u being uniform in (0, 1)
+			int best = 0;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < weights.length; i++) {
+				double w = weights[i];
+				if (w > 0) {
+					double u = ((UUIDBits.mix(hash ^ seeds[i]) >>> 11) + 0.5) * 0x1.0p-53;
+					double score = w / -Math.log(u);
+					if (score > bestScore) {
+						bestScore = score;
+						best = i;
+					}
+				}
+			}
+			return best;
+		}
+	}
+
+}
@@ -19,6 +19,8 @@
 package ellog.uuid;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 
 /**
  * This class represents a UUID as defined in RFC 4122 and the draft for new versions.
@@ -27,6 +29,9 @@ public class StandardUUID extends UUID implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	/** Marker for UUIDs without a timestamp in {@link #epochMillis(long[], long[])}. */
+	public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
 	/**
 	 * Create a new UUID with the given octets.
 	 * @param octets The octets of the UUID.
@@ -36,6 +41,26 @@ public class StandardUUID extends UUID implements Serializable {
 		super(octets, Variant.RFC_4122);
 	}
 
+	/**
+	 * Create a new UUID from the two halves of its octets.
+	 * @param msb The octets 0 to 7 of the UUID in big-endian order.
+	 * @param lsb The octets 8 to 15 of the UUID in big-endian order.
+	 * @throws IllegalArgumentException If the variant is not RFC 4122.
+	 */
+	protected StandardUUID(long msb, long lsb) {
+		super(msb, lsb, Variant.RFC_4122);
+	}
+
+	/**
+	 * Create a new UUID whose octets are decoded on first access.
+	 *
+	 * The subclass must only produce octets of the RFC 4122 variant.
+	 *
+	 * @see UUID#decodeDataBuf()
+	 */
+	StandardUUID() {
+	}
+
 	/**
 	 * Parse the standard UUID string representation.
 	 *
@@ -67,6 +92,46 @@ public class StandardUUID extends UUID implements Serializable {
 		return StandardUUID.class.cast(parsedUuid);
 	}
 
+	/**
+	 * Load the UUID from 16 octets at the given offset of a byte array.
+	 * @param src The array containing the octets of the UUID.
+	 * @param offset The offset of the first octet in the array.
+	 * @return The UUID object.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given offset.
+	 * @throws ClassCastException If the variant is not RFC 4122.
+	 * @see UUID#fromBytes(byte[], int)
+	 */
+	public static StandardUUID fromBytes(byte[] src, int offset) {
+		UUID parsedUuid = UUID.fromBytes(src, offset);
+		return StandardUUID.class.cast(parsedUuid);
+	}
+
+	/**
+	 * Load the UUID from 16 octets at the given index of a buffer.
+	 * @param src The buffer containing the octets of the UUID.
+	 * @param index The index of the first octet in the buffer.
+	 * @return The UUID object.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given index.
+	 * @throws ClassCastException If the variant is not RFC 4122.
+	 * @see UUID#fromBuffer(ByteBuffer, int)
+	 */
+	public static StandardUUID fromBuffer(ByteBuffer src, int index) {
+		UUID parsedUuid = UUID.fromBuffer(src, index);
+		return StandardUUID.class.cast(parsedUuid);
+	}
+
+	/**
+	 * Create the UUID from its two 64 bit halves.
+	 * @param msb The most significant 64 bits (octets 0 to 7) of the UUID.
+	 * @param lsb The least significant 64 bits (octets 8 to 15) of the UUID.
+	 * @return The UUID object.
+	 * @throws ClassCastException If the variant is not RFC 4122.
+	 */
+	public static StandardUUID fromLongs(long msb, long lsb) {
+		UUID parsedUuid = UUID.fromLongs(msb, lsb);
+		return StandardUUID.class.cast(parsedUuid);
+	}
+
 	/**
 	 * Return the time_low field of the UUID.
 	 * @return The time_low field.
@@ -143,19 +208,105 @@ public class StandardUUID extends UUID implements Serializable {
 	 * @return The timestamp value.
 	 */
 	public long timestamp() {
-		if (version() == StandardVersion.TIME_BASED) {
-			long ts
-				= (long) (timeHiAndVersion() & 0x0FFF) << (60-12)
-				| (timeMid() & 0xFFFFL) << (60-12-16)
-				| timeLow();
-			return ts;
-		} else {
-			long ts
-				= ((long) timeLow() << (16 + 12))
-				| (timeMid() << 12)
-				| (timeHiAndVersion() & 0x0FFF);
-			return ts;
+		return UUIDBits.timestamp(getMostSignificantBits());
+	}
+
+	/**
+	 * Check if the UUID contains a timestamp, which is the case for versions 1, 6 and 7.
+	 * @return True if {@link #epochMillis()} and {@link #instant()} can be used with this UUID.
+	 */
+	public boolean isTimeBased() {
+		return UUIDBits.isTimeBased(getMostSignificantBits(), getLeastSignificantBits());
+	}
+
+	/**
+	 * Return the timestamp of the UUID as milliseconds since the unix epoch.
+	 *
+	 * The timestamps of version 1 and 6 UUIDs are rounded towards the beginning of the millisecond.
+	 *
+	 * @return The milliseconds since the unix epoch.
+	 * @throws IllegalStateException If the UUID is not of version 1, 6 or 7.
+	 */
+	public long epochMillis() {
+		long msb = getMostSignificantBits();
+		if (!UUIDBits.isTimeBased(msb, getLeastSignificantBits())) {
+			throw noTimestamp(msb);
+		}
+		return UUIDBits.epochMillis(msb, getLeastSignificantBits());
+	}
+
+	/**
+	 * Return the timestamp of the UUID as an instant.
+	 *
+	 * The instant has the full precision of the timestamp, which is 100ns for versions 1 and 6 and 1ms for version 7.
+	 *
+	 * @return The point in time when the UUID has been created.
+	 * @throws IllegalStateException If the UUID is not of version 1, 6 or 7.
+	 */
+	public Instant instant() {
+		long msb = getMostSignificantBits();
+		if (!UUIDBits.isTimeBased(msb, getLeastSignificantBits())) {
+			throw noTimestamp(msb);
 		}
+		return UUIDBits.instant(msb);
+	}
+
+	private static IllegalStateException noTimestamp(long msb) {
+		return new IllegalStateException("UUID of version " + UUIDBits.version(msb) + " does not contain a timestamp.");
+	}
+
+	/**
+	 * Extract the timestamps of packed UUIDs as milliseconds since the unix epoch.
+	 *
+	 * The UUID with index {@code i} consists of {@code packed[2 * i]} as the most significant and
+	 * {@code packed[2 * i + 1]} as the least significant half.
+	 * Its timestamp is written to {@code out[i]}, or {@link #NO_TIMESTAMP} if it is not an RFC 4122 UUID of version 1,
+	 * 6 or 7.
+	 *
+	 * @param packed The packed UUIDs.
+	 * @param out The array receiving the timestamps.
+	 * @throws IllegalArgumentException If the length of {@code packed} is odd or {@code out} is too short.
+	 * @see #epochMillis()
+	 */
+	public static void epochMillis(long[] packed, long[] out) {
+		if ((packed.length & 1) != 0) {
+			throw new IllegalArgumentException("Packed UUIDs must consist of an even number of longs.");
+		}
+		int count = packed.length >>> 1;
+		if (out.length < count) {
+			throw new IllegalArgumentException("Output array is too short for the given UUIDs.");
+		}
+		for (int i = 0; i < count; i++) {
+			out[i] = UUIDBits.epochMillis(packed[2 * i], packed[2 * i + 1]);
+		}
+	}
+
+	/**
+	 * Convert this version 1 UUID to the version 6 UUID with the same timestamp, clock sequence and node.
+	 * @return The version 6 UUID.
+	 * @throws IllegalStateException If this UUID is not of version 1.
+	 * @see UUIDConversions
+	 */
+	public StandardUUID toV6() {
+		long msb = getMostSignificantBits();
+		if (UUIDBits.version(msb) != 1) {
+			throw new IllegalStateException("Only version 1 UUIDs can be converted to version 6.");
+		}
+		return new StandardUUID(UUIDConversions.v1ToV6(msb), getLeastSignificantBits());
+	}
+
+	/**
+	 * Convert this version 6 UUID to the version 1 UUID with the same timestamp, clock sequence and node.
+	 * @return The version 1 UUID.
+	 * @throws IllegalStateException If this UUID is not of version 6.
+	 * @see UUIDConversions
+	 */
+	public StandardUUID toV1() {
+		long msb = getMostSignificantBits();
+		if (UUIDBits.version(msb) != 6) {
+			throw new IllegalStateException("Only version 6 UUIDs can be converted to version 1.");
+		}
+		return new StandardUUID(UUIDConversions.v6ToV1(msb), getLeastSignificantBits());
 	}
 
 	/**
@@ -163,7 +314,7 @@ public class StandardUUID extends UUID implements Serializable {
 	 * @return The clock sequence value.
 	 */
 	public short clockSequence() {
-		return (short) ((clockSeqHiAndReserved() & 0x3F) << 8 | clockSeqLow());
+		return UUIDBits.clockSequence(getLeastSignificantBits());
 	}
 
 	/**
@@ -171,9 +322,7 @@ public class StandardUUID extends UUID implements Serializable {
 	 * @return The node value.
 	 */
 	public long node() {
-		long data = dataBuf().getLong(8);
-		// remove the two bytes which are too much (node is 48 bits)
-		return data & 0x0000FFFFFFFFFFFFL;
+		return UUIDBits.node(getLeastSignificantBits());
 	}
 
 
@@ -204,6 +353,8 @@ public class StandardUUID extends UUID implements Serializable {
 	 * Create a time based UUID according to version 1.
 	 *
 	 * This method uses a global time supplier which is synchronized in order to guarantee the uniqueness of the UUIDs.
+	 * Use a supplier created with {@link TimeV1Supplier#createStartupOptimized()} to avoid waiting for the host address
+	 * and the secure random clock sequence.
 	 *
 	 * @return The newly generated UUID.
 	 */
@@ -225,4 +376,23 @@ public class StandardUUID extends UUID implements Serializable {
 		return TimeV7Holder.INSTANCE.get();
 	}
 
+	private static class PartitionedV7Holder {
+		static final PartitionedV7Supplier INSTANCE = new PartitionedV7Supplier();
+	}
+	/**
+	 * Create a time based UUID according to version 7 without synchronization between threads.
+	 *
+	 * This method uses a global {@link PartitionedV7Supplier}, so the UUIDs are unique and monotonic within each thread,
+	 * but UUIDs of different threads are only ordered by their millisecond.
+	 * The threads are kept apart by 8 slot bits, so collisions between threads are excluded as long as no more than 256
+	 * threads using this method are alive at the same time.
+	 * Slots of terminated threads are reused, beyond 256 live threads the UUIDs of threads sharing a slot are only kept
+	 * apart by 54 random bits.
+	 *
+	 * @return The newly generated UUID.
+	 */
+	public static StandardUUID createTimeV7Partitioned() {
+		return PartitionedV7Holder.INSTANCE.get();
+	}
+
 }
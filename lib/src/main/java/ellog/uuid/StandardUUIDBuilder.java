@@ -18,7 +18,6 @@
 
 package ellog.uuid;
 
-import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 
 /**
@@ -184,7 +183,7 @@ public class StandardUUIDBuilder implements Cloneable {
 	 */
 	public StandardUUIDBuilder setRandomNodeAddress() {
 		long addr = getSecRandom().nextLong();
-		return setNode(addr | (1 << 40));
+		return setNode(addr | (1L << 40));
 	}
 
 	/**
@@ -192,18 +191,14 @@ public class StandardUUIDBuilder implements Cloneable {
 	 * @return The newly generated UUID.
 	 */
 	public StandardUUID build() {
-		byte[] octets = new byte[16];
-		ByteBuffer buf = ByteBuffer.wrap(octets);
-
-		buf.putInt(tsLow);
-		buf.putShort(tsMid);
-		// only 12 bits used
-		buf.putShort((short) ((tsHigh & 0x0FFF) | (version << 12)));
-		buf.putShort((short) (clockSequence | (0b10 << 14)));
-		buf.putShort((short) (node >>> 32));
-		buf.putInt((int) (node & 0xFFFFFFFF));
-
-		return new StandardUUID(octets);
+		long msb = (tsLow & 0xFFFFFFFFL) << 32
+			| (tsMid & 0xFFFFL) << 16
+			// only 12 bits used
+			| (tsHigh & 0x0FFF) | (version << 12);
+		long lsb = (long) (clockSequence | (0b10 << 14)) << 48
+			| node;
+
+		return new StandardUUID(msb, lsb);
 	}
 
 }
@@ -37,9 +37,14 @@ public abstract class StandardUUIDSupplierBase implements Supplier<StandardUUID>
 	 */
 	protected boolean isSynchronized = true;
 
+	private volatile Thread firstCaller;
+	private volatile boolean shared;
+
 	protected StandardUUIDSupplierBase clone() throws CloneNotSupportedException {
 		StandardUUIDSupplierBase clone = (StandardUUIDSupplierBase) super.clone();
 		clone.builder = builder.clone();
+		clone.firstCaller = null;
+		clone.shared = false;
 		return clone;
 	}
 
@@ -76,6 +81,28 @@ public abstract class StandardUUIDSupplierBase implements Supplier<StandardUUID>
 		this.isSynchronized = isSynchronized;
 	}
 
+	/**
+	 * Check if this supplier has been called from more than one thread.
+	 *
+	 * Suppliers can use this to switch to an implementation which causes less contention between the threads.
+	 * Once the supplier is shared, it stays shared.
+	 *
+	 * @return True if the supplier has been called from different threads, false otherwise.
+	 */
+	protected boolean isShared() {
+		if (shared) {
+			return true;
+		}
+		Thread current = Thread.currentThread();
+		Thread first = firstCaller;
+		if (first == null) {
+			firstCaller = current;
+		} else if (first != current) {
+			shared = true;
+		}
+		return shared;
+	}
+
 	/**
 	 * Create an infinite stream with the given supplier.
 	 *
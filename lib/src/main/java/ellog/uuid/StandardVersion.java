@@ -42,6 +42,9 @@ public enum StandardVersion {
 	/** Version 8: Vendor-specific. */
 	VENDOR_SPECIFIC(8);
 
+	/** Shared copy of {@link #values()}, which must not be modified. */
+	private static final StandardVersion[] VALUES = values();
+
 	/** The value of this version as defined by the RFC. */
 	public final int value;
 
@@ -57,11 +60,10 @@ public enum StandardVersion {
 	 * @return The version enum value.
 	 */
 	public static StandardVersion fromInt(int value) {
-		StandardVersion[] versions = StandardVersion.values();
-		if (value <= 0 || value > versions.length) {
+		if (value <= 0 || value > VALUES.length) {
 			throw new IllegalArgumentException("Invalid UUID version: " + value);
 		} else {
-			return versions[value-1];
+			return VALUES[value-1];
 		}
 	}
 }
@@ -18,10 +18,8 @@
 
 package ellog.uuid;
 
-import java.net.NetworkInterface;
-import java.net.SocketException;
 import java.nio.ByteBuffer;
-import java.util.Collections;
+import java.security.SecureRandom;
 
 /**
  * Base class for time-based UUID suppliers.
@@ -33,6 +31,12 @@ public abstract class TimeBasedSupplier extends StandardUUIDSupplierBase {
 	 */
 	protected final TimeProviderV1 timeProvider;
 
+	/** The multicast bit of the first octet of the node, which marks addresses not taken from a network card. */
+	private static final long MULTICAST_BIT = 1L << 40;
+
+	/** Node value and clock sequence found in the background, which replace the current values. */
+	private volatile long[] pendingIdentity;
+
 	/**
 	 * Create a new time-based UUID supplier.
 	 * @param version The version to use.
@@ -82,25 +86,87 @@ public abstract class TimeBasedSupplier extends StandardUUIDSupplierBase {
 
 	/**
 	 * Load the hardware address of the first non-loopback network interface or a random value if no interface can be used.
+	 *
+	 * The network interfaces are only enumerated once, the address is shared by all suppliers.
+	 *
 	 * @return This supplier for method chaining.
 	 */
 	public TimeBasedSupplier loadHostAddress() {
-		try {
-			for (NetworkInterface next : Collections.list(NetworkInterface.getNetworkInterfaces())) {
-				// TODO: find out if we should reject virtual or sub-interfaces
-				if (!next.isLoopback() && next.isUp()) {
-					byte[] hwAddr = next.getHardwareAddress();
-					if (hwAddr != null) {
-						return setAddress(hwAddr);
-					}
-				}
+		long address = HostAddress.get();
+		if (address != HostAddress.NONE) {
+			return setAddress(address);
+		} else {
+			// nothing found fall back to random
+			return this.loadRandomAddress();
+		}
+	}
+
+	/**
+	 * Load the hardware address and a secure random clock sequence in the background.
+	 *
+	 * Enumerating the network interfaces and seeding the secure random number generator can take tens to hundreds of
+	 * milliseconds, and the seeding may block until the system has gathered enough entropy.
+	 * If the host address is already known, it is loaded immediately like in {@link #loadHostAddress()}.
+	 * Otherwise, the supplier is usable immediately with a random multicast address and clock sequence derived from the
+	 * current time and the identity of the supplier.
+	 * These values are not as unpredictable as secure random values.
+	 * Once the background lookup is finished, the following UUIDs use the host address, or a secure random address if
+	 * no interface can be used, and a new secure random clock sequence.
+	 *
+	 * @return This supplier for method chaining.
+	 */
+	public TimeBasedSupplier loadHostAddressAsync() {
+		if (HostAddress.isResolved()) {
+			loadHostAddress();
+			builder.setRandomClockSequence();
+			return this;
+		}
+
+		long seed = UUIDBits.mix(System.nanoTime() ^ UUIDBits.mix(System.currentTimeMillis())
+			^ (long) System.identityHashCode(this) << 32);
+		builder.setNode(seed | MULTICAST_BIT);
+		builder.setClockSequence((int) (seed >>> 48));
+
+		Thread lookup = new Thread(new IdentityLookup(this), "UUID host address lookup");
+		lookup.setDaemon(true);
+		lookup.start();
+		return this;
+	}
+
+	/**
+	 * Background task resolving the final node value and clock sequence of a supplier.
+	 */
+	private static final class IdentityLookup implements Runnable {
+		private final TimeBasedSupplier supplier;
+
+		IdentityLookup(TimeBasedSupplier supplier) {
+			this.supplier = supplier;
+		}
+
+		@Override
+		public void run() {
+			long address = HostAddress.get();
+			SecureRandom random = supplier.builder.getSecRandom();
+			if (address == HostAddress.NONE) {
+				address = (random.nextLong() | MULTICAST_BIT) & 0x0000FFFFFFFFFFFFL;
 			}
-		} catch (SocketException e) {
-			// ignore and use the fallback
+			supplier.pendingIdentity = new long[] { address, random.nextInt() };
 		}
+	}
 
-		// nothing found fall back to random
-		return this.loadRandomAddress();
+	/**
+	 * Apply the node value and clock sequence found by {@link #loadHostAddressAsync()}, if the lookup has finished.
+	 *
+	 * This method must be called by the subclasses before building a UUID, while holding the lock of the builder if
+	 * the supplier is synchronized.
+	 */
+	protected void applyPendingIdentity() {
+		long[] identity = pendingIdentity;
+		if (identity != null) {
+			builder.setNode(identity[0]);
+			builder.setClockSequence((int) identity[1]);
+			pendingIdentity = null;
+		}
 	}
 
 	/**
@@ -19,7 +19,6 @@
 package ellog.uuid;
 
 import java.time.Clock;
-import java.time.Duration;
 import java.time.Instant;
 
 /**
@@ -31,9 +30,9 @@ import java.time.Instant;
 public class TimeProviderV1 {
 
 	/**
-	 * Reference date (start of gregorian calendar) for UUID version 1.
+	 * Reference date (start of gregorian calendar, 1582-10-15T00:00:00Z) for UUID version 1.
 	 */
-	public static final Instant REFERENCE = Instant.parse("1582-10-15T00:00:00Z");
+	public static final Instant REFERENCE = Instant.ofEpochSecond(-12_219_292_800L);
 
 	/**
 	 * The last instant emitted, or the mimimal possible value if none was emitted yet.
@@ -76,10 +75,18 @@ public class TimeProviderV1 {
 		public synchronized Instant getNext(long nanoPrecision) {
 			return super.getNext(nanoPrecision);
 		}
+
+		@Override
+		public synchronized Instant reserve(int n, long nanoPrecision) {
+			return super.reserve(n, nanoPrecision);
+		}
 	}
 
 	/**
 	 * Set the clock used to get the current time.
+	 *
+	 * A {@link CachedClock} avoids reading the system clock for every timestamp.
+	 *
 	 * @param clock The new clock.
 	 * @return This instance for method chaining.
 	 */
@@ -95,7 +102,11 @@ public class TimeProviderV1 {
 	 */
 	public Instant getNext(long nanoPrecision) {
 		Instant nextInstant = clock.instant();
-		if (nextInstant.isAfter(lastInstant)) {
+		// instants within the same interval of the precision result in the same timestamp, so compare the intervals
+		long seconds = nextInstant.getEpochSecond();
+		long lastSeconds = lastInstant.getEpochSecond();
+		if (seconds > lastSeconds
+				|| seconds == lastSeconds && nextInstant.getNano() / nanoPrecision > lastInstant.getNano() / nanoPrecision) {
 			lastInstant = nextInstant;
 			return nextInstant;
 		} else {
@@ -111,12 +122,51 @@ public class TimeProviderV1 {
 	 * @see #REFERENCE
 	 */
 	public long getNextRefTimestamp(long nanoPrecision) {
-		Instant next = getNext(nanoPrecision);
-		Duration interval = Duration.between(REFERENCE, next);
-		long seconds = interval.getSeconds() * (1_000_000_000 / nanoPrecision);
-		long nanos = interval.getNano() / nanoPrecision;
-		long result = seconds + nanos;
-		return result;
+		return toRefTimestamp(getNext(nanoPrecision), nanoPrecision);
+	}
+
+	/**
+	 * Reserve a range of consecutive timestamps with a single update of the state.
+	 *
+	 * The range consists of the returned timestamp and the following {@code n - 1} timestamps, each advanced by the
+	 * precision.
+	 * All timestamps of the range are unique and greater than the timestamps emitted before, like timestamps
+	 * obtained with {@link #getNext(long)}, so the caller can use them without accessing this provider again.
+	 * They are only ordered with respect to the timestamps of other callers at the time of the reservation, not at the
+	 * time they are used.
+	 *
+	 * @param n The number of timestamps to reserve.
+	 * @param nanoPrecision Amount of nanoseconds between two timestamps.
+	 * @return The first timestamp of the range.
+	 * @throws IllegalArgumentException If the number of timestamps is not positive.
+	 */
+	public Instant reserve(int n, long nanoPrecision) {
+		if (n < 1) {
+			throw new IllegalArgumentException("At least one timestamp must be reserved.");
+		}
+		Instant first = getNext(nanoPrecision);
+		lastInstant = first.plusNanos((n - 1) * nanoPrecision);
+		return first;
+	}
+
+	/**
+	 * Reserve a range of consecutive timestamps with the specified precision starting at the reference time.
+	 * @param n The number of timestamps to reserve.
+	 * @param nanoPrecision Amount of nanoseconds in the timestamp.
+	 * @return The first timestamp of the range, the following timestamps are incremented by one.
+	 * @throws IllegalArgumentException If the number of timestamps is not positive.
+	 * @see #reserve(int, long)
+	 */
+	public long reserveRefTimestamps(int n, long nanoPrecision) {
+		return toRefTimestamp(reserve(n, nanoPrecision), nanoPrecision);
+	}
+
+	private static long toRefTimestamp(Instant next, long nanoPrecision) {
+		// the interval does not fit into a long of nanoseconds, so it is calculated from the fields directly instead of
+		// using Duration.between, which would fail internally and allocate an exception for every timestamp
+		long seconds = (next.getEpochSecond() - REFERENCE.getEpochSecond()) * (1_000_000_000 / nanoPrecision);
+		long nanos = (next.getNano() - REFERENCE.getNano()) / nanoPrecision;
+		return seconds + nanos;
 	}
 
 	/**
@@ -71,11 +71,24 @@ public class TimeProviderV7 {
 
 	private static class TimeProviderV7Locked extends TimeProviderV7 {
 		@Override
-		public synchronized TimeAndCounter getNext() {
-			return super.getNext();
+		public synchronized Reservation reserve(int n, int counterBits) {
+			return super.reserve(n, counterBits);
 		}
 	}
 
+	/**
+	 * Set the clock used to get the current time.
+	 *
+	 * A {@link CachedClock} avoids reading the system clock for every timestamp.
+	 *
+	 * @param clock The new clock.
+	 * @return This instance for method chaining.
+	 */
+	public TimeProviderV7 setClock(Clock clock) {
+		this.clock = clock;
+		return this;
+	}
+
 	/**
 	 * A data class for a timestamp and a counter value.
 	 */
@@ -103,19 +116,130 @@ public class TimeProviderV7 {
 		}
 	}
 
+	/**
+	 * A data class for a range of consecutive counter values within one timestamp.
+	 *
+	 * The counter value of the base class is the first value of the range.
+	 */
+	public static class Reservation extends TimeAndCounter {
+		/** The number of counter values in the range, at least one. */
+		public final int count;
+
+		/**
+		 * Create a new instance of this class.
+		 * @param time The timestamp value.
+		 * @param counter The first counter value.
+		 * @param count The number of counter values.
+		 */
+		public Reservation(long time, int counter, int count) {
+			super(time, counter);
+			this.count = count;
+		}
+	}
+
 	/**
 	 * Get the next unique and monotonically increased timestamp and counter value.
+	 *
+	 * The counter is not limited, apart from the range of the {@code int} type.
+	 *
 	 * @return The next timestamp and counter value.
+	 * @see #getNext(int)
 	 */
 	public TimeAndCounter getNext() {
+		return getNext(Integer.SIZE - 1);
+	}
+
+	/**
+	 * Get the next unique and monotonically increased timestamp and counter value with a limited counter.
+	 *
+	 * If the counter would exceed the given number of bits, because the clock stalls, goes backwards or more values
+	 * than the counter can hold are requested within one millisecond, the timestamp of the next millisecond is used
+	 * and the counter starts again at zero.
+	 * The timestamps run ahead of the clock in this case until the clock catches up.
+	 *
+	 * @param counterBits The number of bits available for the counter value.
+	 * @return The next timestamp and counter value.
+	 */
+	public TimeAndCounter getNext(int counterBits) {
+		return reserve(1, counterBits);
+	}
+
+	/**
+	 * Reserve a range of consecutive counter values with a single update of the state.
+	 *
+	 * All values of the range are unique and greater than the values emitted before, like values obtained with
+	 * {@link #getNext(int)}.
+	 * The caller can build UUIDs from the range without accessing this provider again.
+	 * The range is shortened if the counter does not have enough values left in the current millisecond, so fewer
+	 * values than requested may be returned.
+	 * If no values are left, the timestamp of the next millisecond is used, see {@link #getNext(int)}.
+	 *
+	 * <p>UUIDs built from a range are only ordered with respect to the values of other callers at the time of the
+	 * reservation, not at the time the UUIDs are built.</p>
+	 *
+	 * @param n The number of counter values to reserve.
+	 * @param counterBits The number of bits available for the counter value.
+	 * @return The timestamp, the first counter value and the number of reserved values.
+	 * @throws IllegalArgumentException If the number of values is not positive.
+	 */
+	public Reservation reserve(int n, int counterBits) {
+		if (n < 1) {
+			throw new IllegalArgumentException("At least one value must be reserved.");
+		}
+		int maxCounter = maxCounter(counterBits);
 		long millis = clock.millis();
+		int first;
 		if (millis > lastMillis) {
 			lastMillis = millis;
-			counter = 0;
+			first = 0;
+		} else if (counter >= maxCounter) {
+			// counter exhausted, borrow the next millisecond
+			lastMillis++;
+			first = 0;
+		} else {
+			first = counter + 1;
+		}
+		int count = (int) Math.min(n, (long) maxCounter - first + 1);
+		counter = first + count - 1;
+		return new Reservation(lastMillis, first, count);
+	}
+
+	/**
+	 * Reserve a range of consecutive counter values without a limit for the counter.
+	 * @param n The number of counter values to reserve.
+	 * @return The timestamp, the first counter value and the number of reserved values.
+	 * @throws IllegalArgumentException If the number of values is not positive.
+	 * @see #reserve(int, int)
+	 */
+	public Reservation reserve(int n) {
+		return reserve(n, Integer.SIZE - 1);
+	}
+
+	/**
+	 * Check if a reserved value may still be used.
+	 *
+	 * Reserved values become outdated when the clock advances past their timestamp, so that UUIDs are not built
+	 * with old timestamps.
+	 *
+	 * @param time The timestamp of the reserved value.
+	 * @param counter The counter value.
+	 * @return True if the value may be used.
+	 */
+	public boolean isCurrent(long time, int counter) {
+		return clock.millis() <= time;
+	}
+
+	/**
+	 * Get the largest counter value fitting into the given number of bits.
+	 * @param counterBits The number of bits available for the counter value.
+	 * @return The largest counter value.
+	 */
+	static int maxCounter(int counterBits) {
+		if (counterBits >= Integer.SIZE - 1) {
+			return Integer.MAX_VALUE;
 		} else {
-			counter++;
+			return (1 << Math.max(0, counterBits)) - 1;
 		}
-		return new TimeAndCounter(lastMillis, counter);
 	}
 
 }
@@ -18,17 +18,38 @@
 
 package ellog.uuid;
 
-import java.util.function.Supplier;
+import java.util.function.Consumer;
 
 /**
  * This class generates time-based UUIDs according to version 1.
+ *
+ * By default the timestamps of all UUIDs of the supplier are ordered by the time of their generation, no matter which
+ * thread generates them.
+ * Optionally the threads can reserve ranges of timestamps, see {@link #setLeaseSize(int)}.
  */
 public class TimeV1Supplier extends TimeBasedSupplier implements Cloneable {
 
+	/** The default number of timestamps reserved by a thread at once, which disables the reservation. */
+	public static final int DEFAULT_LEASE_SIZE = 1;
+
+	/**
+	 * Timestamps reserved by one thread.
+	 */
+	private static final class Lease {
+		long next;
+		int remaining;
+		long millis;
+	}
+
+	private int leaseSize = DEFAULT_LEASE_SIZE;
+	private ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+
 	@Override
 	public TimeV1Supplier clone() {
 		try {
-			return (TimeV1Supplier) super.clone();
+			TimeV1Supplier clone = (TimeV1Supplier) super.clone();
+			clone.leases = ThreadLocal.withInitial(Lease::new);
+			return clone;
 		} catch (CloneNotSupportedException ex) {
 			throw new RuntimeException("Cloning of TimeV1Supplier failed.", ex);
 		}
@@ -50,26 +71,95 @@ public class TimeV1Supplier extends TimeBasedSupplier implements Cloneable {
 	 * @param timeProvider The time provider to use.
 	 */
 	public TimeV1Supplier(TimeProviderV1 timeProvider) {
+		this(timeProvider, TimeV1Supplier::loadHostIdentity);
+	}
+
+	/**
+	 * Create a new supplier using the given time provider and initializer of the node value and clock sequence.
+	 * @param timeProvider The time provider to use.
+	 * @param identityLoader The initializer setting the node value and clock sequence of the new supplier.
+	 */
+	private TimeV1Supplier(TimeProviderV1 timeProvider, Consumer<TimeV1Supplier> identityLoader) {
 		super(StandardVersion.TIME_BASED, timeProvider);
-		loadHostAddress();
-		builder.setRandomClockSequence();
+		identityLoader.accept(this);
+	}
+
+	private static void loadHostIdentity(TimeV1Supplier supplier) {
+		supplier.loadHostAddress();
+		supplier.builder.setRandomClockSequence();
+	}
+
+	/**
+	 * Create a new supplier which is usable immediately, without waiting for the host address and secure random values.
+	 *
+	 * This is useful to reduce the startup time of short-lived processes.
+	 * The address and clock sequence are replaced once they have been determined in the background.
+	 *
+	 * @return The new supplier using the default time provider.
+	 * @see #loadHostAddressAsync()
+	 */
+	public static TimeV1Supplier createStartupOptimized() {
+		return new TimeV1Supplier(TimeProviderV1.create(), TimeV1Supplier::loadHostAddressAsync);
+	}
+
+	/**
+	 * Set the number of timestamps a thread reserves at once, when the supplier is used by multiple threads.
+	 *
+	 * With a lease size greater than one, each thread reserves a range of timestamps from the time provider, so the
+	 * provider is not accessed for every UUID, see {@link TimeProviderV1#reserve(int, long)}.
+	 * This reduces the contention of the threads, but gives up the global order of the timestamps.
+	 * The timestamps are still unique and strictly increasing within each thread, and a thread discards its remaining
+	 * timestamps when the clock enters the next millisecond, so timestamps of different threads are only ordered at the
+	 * granularity of milliseconds.
+	 * The reservation is only used by synchronized suppliers.
+	 *
+	 * @param leaseSize The number of timestamps, one disables the reservation.
+	 * @return This supplier for method chaining.
+	 * @throws IllegalArgumentException If the lease size is not positive.
+	 */
+	public TimeV1Supplier setLeaseSize(int leaseSize) {
+		if (leaseSize < 1) {
+			throw new IllegalArgumentException("The lease size must be positive.");
+		}
+		this.leaseSize = leaseSize;
+		return this;
 	}
 
 	@Override
 	public StandardUUID get() {
-		long ts = timeProvider.getNextRefTimestamp100ns();
+		long ts;
+		if (leaseSize > 1 && isSynchronized() && isShared()) {
+			ts = nextLeased();
+		} else {
+			ts = timeProvider.getNextRefTimestamp100ns();
+		}
 
-		Supplier<StandardUUID> buildFun = () -> builder.setTimestampLow((int) ts)
-			.setTimestampMid((short) (ts >> 32))
-			.setTimestampHigh((short) (ts >> 48))
-			.build();
 		if (isSynchronized()) {
 			synchronized (builder) {
-				return buildFun.get();
+				return build(ts);
 			}
 		} else {
-			return buildFun.get();
+			return build(ts);
+		}
+	}
+
+	private long nextLeased() {
+		Lease lease = leases.get();
+		if (lease.remaining == 0 || timeProvider.clock.millis() > lease.millis) {
+			lease.next = timeProvider.reserveRefTimestamps(leaseSize, 100);
+			lease.remaining = leaseSize;
+			lease.millis = Math.floorDiv(lease.next - UUIDBits.GREGORIAN_OFFSET_100NS, 10_000);
 		}
+		lease.remaining--;
+		return lease.next++;
+	}
+
+	private StandardUUID build(long ts) {
+		applyPendingIdentity();
+		return builder.setTimestampLow((int) ts)
+			.setTimestampMid((short) (ts >> 32))
+			.setTimestampHigh((short) (ts >> 48))
+			.build();
 	}
 
 	/**
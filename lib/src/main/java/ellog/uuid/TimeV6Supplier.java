@@ -18,8 +18,6 @@
 
 package ellog.uuid;
 
-import java.util.function.Supplier;
-
 /**
  * This class generates ordered time-based UUIDs according to version 6.
  */
@@ -38,7 +36,15 @@ public class TimeV6Supplier extends TimeBasedSupplier implements Cloneable {
 	 * Create a new supplier with a random address and clock sequence.
 	 */
 	public TimeV6Supplier() {
-		super(StandardVersion.TIME_BASED_ORDERED_LEGACY);
+		this(TimeProviderV1.create());
+	}
+
+	/**
+	 * Create a new supplier with a random address and clock sequence using the given time provider.
+	 * @param timeProvider The time provider to use.
+	 */
+	public TimeV6Supplier(TimeProviderV1 timeProvider) {
+		super(StandardVersion.TIME_BASED_ORDERED_LEGACY, timeProvider);
 		loadRandomAddress();
 		builder.setRandomClockSequence();
 	}
@@ -47,15 +53,19 @@ public class TimeV6Supplier extends TimeBasedSupplier implements Cloneable {
 	public StandardUUID get() {
 		long ts = timeProvider.getNextRefTimestamp100ns();
 
-		Supplier<StandardUUID> buildFun = () -> builder.setTimestamp(ts)
-			.build();
 		if (isSynchronized()) {
 			synchronized (builder) {
-				return buildFun.get();
+				return build(ts);
 			}
 		} else {
-			return buildFun.get();
+			return build(ts);
 		}
 	}
 
+	private StandardUUID build(long ts) {
+		applyPendingIdentity();
+		return builder.setTimestamp(ts)
+			.build();
+	}
+
 }
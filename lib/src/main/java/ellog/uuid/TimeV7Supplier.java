@@ -18,13 +18,27 @@
 
 package ellog.uuid;
 
-import java.util.function.Supplier;
-
 /**
  * This class generates ordered time-based UUIDs according to version 7.
+ *
+ * By default all UUIDs of the supplier are ordered by the time of their generation, no matter which thread generates
+ * them.
+ * Optionally the threads can reserve ranges of counter values, see {@link #setLeaseSize(int)}.
  */
 public class TimeV7Supplier extends StandardUUIDSupplierBase implements Cloneable {
 
+	/** The default number of counter values reserved by a thread at once, which disables the reservation. */
+	public static final int DEFAULT_LEASE_SIZE = 1;
+
+	/**
+	 * Counter values reserved by one thread.
+	 */
+	private static final class Lease {
+		long time;
+		int next;
+		int remaining;
+	}
+
 	/**
 	 * The provider of the current time and collision counter value.
 	 */
@@ -34,10 +48,15 @@ public class TimeV7Supplier extends StandardUUIDSupplierBase implements Cloneabl
 	 */
 	protected final int fixedCounterLength;
 
+	private int leaseSize = DEFAULT_LEASE_SIZE;
+	private ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+
 	@Override
 	public TimeV7Supplier clone() {
 		try {
-			return (TimeV7Supplier) super.clone();
+			TimeV7Supplier clone = (TimeV7Supplier) super.clone();
+			clone.leases = ThreadLocal.withInitial(Lease::new);
+			return clone;
 		} catch (CloneNotSupportedException ex) {
 			throw new RuntimeException("Cloning of TimeV7Supplier failed.", ex);
 		}
@@ -65,6 +84,29 @@ public class TimeV7Supplier extends StandardUUIDSupplierBase implements Cloneabl
 		this(TimeProviderV7.create(), 12);
 	}
 
+	/**
+	 * Set the number of counter values a thread reserves at once, when the supplier is used by multiple threads.
+	 *
+	 * With a lease size greater than one, each thread reserves a range of counter values from the time provider and
+	 * builds the UUIDs of the range without locking, see {@link TimeProviderV7#reserve(int, int)}.
+	 * This reduces the contention of the threads, but gives up the global order of the UUIDs.
+	 * The UUIDs are still unique and strictly increasing within each thread, and across threads they are ordered by
+	 * their timestamp, but UUIDs generated by different threads within the same millisecond are not ordered by the time
+	 * of their generation.
+	 * The reservation is only used by synchronized suppliers.
+	 *
+	 * @param leaseSize The number of counter values, one disables the reservation.
+	 * @return This supplier for method chaining.
+	 * @throws IllegalArgumentException If the lease size is not positive.
+	 */
+	public TimeV7Supplier setLeaseSize(int leaseSize) {
+		if (leaseSize < 1) {
+			throw new IllegalArgumentException("The lease size must be positive.");
+		}
+		this.leaseSize = leaseSize;
+		return this;
+	}
+
 	private short counterOrRand(int numCounterBits, int counter, int numWidth) {
 		int result = 0;
 		// make sure we have no negative numbers
@@ -87,31 +129,58 @@ public class TimeV7Supplier extends StandardUUIDSupplierBase implements Cloneabl
 
 	@Override
 	public StandardUUID get() {
-		TimeProviderV7.TimeAndCounter tc = timeProvider.getNext();
-		long ts = tc.time;
-
-		int counter = tc.counter;
-		int numCounterBits = tc.numCounterBits();
-		if (numCounterBits > fixedCounterLength) {
-			// TODO: handle counter overflow properly
-			System.err.println("UUID counter overflow. Consider increasing the counter length to a value bigger than " + numCounterBits + ".");
+		boolean leased = leaseSize > 1 && isSynchronized() && isShared();
+		long ts;
+		int counter;
+		if (leased) {
+			Lease lease = currentLease();
+			ts = lease.time;
+			counter = lease.next++;
+			lease.remaining--;
+		} else {
+			TimeProviderV7.TimeAndCounter tc = timeProvider.getNext(fixedCounterLength);
+			ts = tc.time;
+			counter = tc.counter;
+		}
+
+		// the counter starts in rand_a and continues in the leading bits of rand_b, so the UUIDs are ordered
+		int lowBits = Math.max(0, fixedCounterLength - 12);
+		short tsHigh = counterOrRand(fixedCounterLength - lowBits, counter >>> lowBits, 12);
+		short cs = counterOrRand(lowBits, counter & ((1 << lowBits) - 1), 14);
+
+		if (leased) {
+			// built without the shared builder, the random number generator is thread-safe
+			long msb = ts << 16 | StandardVersion.TIME_BASED_ORDERED.value << 12 | tsHigh & 0x0FFF;
+			long lsb = (long) (cs & 0x3FFF | 0b10 << 14) << 48
+				| builder.getSecRandom().nextLong() & 0x0000FFFFFFFFFFFFL;
+			return new StandardUUID(msb, lsb);
+		} else if (isSynchronized()) {
+			synchronized (builder) {
+				return build(ts, tsHigh, cs);
+			}
+		} else {
+			return build(ts, tsHigh, cs);
 		}
-		short tsHigh = counterOrRand(fixedCounterLength, counter, 12);
-		short cs = counterOrRand(fixedCounterLength - 12, counter >>> 12, 14);
+	}
 
-		Supplier<StandardUUID> buildFun = () -> builder.setTimestampLow((int) (ts >>> 16))
+	private Lease currentLease() {
+		Lease lease = leases.get();
+		if (lease.remaining == 0 || !timeProvider.isCurrent(lease.time, lease.next)) {
+			TimeProviderV7.Reservation r = timeProvider.reserve(leaseSize, fixedCounterLength);
+			lease.time = r.time;
+			lease.next = r.counter;
+			lease.remaining = r.count;
+		}
+		return lease;
+	}
+
+	private StandardUUID build(long ts, short tsHigh, short cs) {
+		return builder.setTimestampLow((int) (ts >>> 16))
 			.setTimestampMid((short) ts)
 			.setTimestampHigh(tsHigh)
 			.setClockSequence(cs)
 			.setRandomNode()
 			.build();
-		if (isSynchronized()) {
-			synchronized (builder) {
-				return buildFun.get();
-			}
-		} else {
-			return buildFun.get();
-		}
 	}
 
 }
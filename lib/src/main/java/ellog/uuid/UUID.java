@@ -18,13 +18,19 @@
 
 package ellog.uuid;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.math.BigInteger;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -51,12 +57,12 @@ import java.util.regex.Pattern;
  *   urn:uuid:01234567-89ab-cdef-0123-456789abcdef
  * </pre>
  * <pre>
- *   urn:oid:01234567890123456789
+ *   urn:oid:2.25.1512366075204170929049582354406559215
  * </pre>
  *
- * <p>UUIDs can also be formatted to decimal representation:</p>
+ * <p>UUIDs can also be formatted to decimal representation, which is the 128 bit value as an unsigned number:</p>
  * <pre>
- *   01234567890123456789
+ *   1512366075204170929049582354406559215
  * </pre>
  *
  */
@@ -64,12 +70,21 @@ public abstract class UUID implements Comparable<UUID>, Serializable {
 
 	private static final long serialVersionUID = 1L;
 
-	/** The standard UUID string representation pattern. */
+	/**
+	 * The standard UUID string representation pattern.
+	 *
+	 * @deprecated Compiling the pattern slows down the initialization of this class and the pattern is not used by the
+	 *     parser. Use {@link #isValidHex(CharSequence)} to validate strings.
+	 */
+	@Deprecated
 	public static final Pattern HEX_PATTERN = Pattern.compile(
 		"^([0-9a-f]{8})-([0-9a-f]{4})-([0-9a-f]{4})-([0-9a-f]{4})-([0-9a-f]{12})$",
 		Pattern.CASE_INSENSITIVE
 	);
 
+	private static final String OID_PREFIX = "2.25.";
+	private static final String OID_URN_PREFIX = "urn:oid:" + OID_PREFIX;
+
 	/** The NIL UUID consisting only of zeroes. */
 	public static UUID NIL_UUID = new UnknownUUID(new byte[16]);
 	/** The MAX UUID consisting only of ones. */
@@ -84,15 +99,57 @@ public abstract class UUID implements Comparable<UUID>, Serializable {
 	/**
 	 * Private buffer object.
 	 *
-	 * Can't be final because of serialization, so it's better to have it private.
+	 * Can't be final because of serialization and lazy decoding, so it's better to have it private.
  	 */
 	private transient ByteBuffer dataBuffer;
+	private static final VarHandle DATA_BUFFER;
+
+	static {
+		try {
+			DATA_BUFFER = MethodHandles.lookup().findVarHandle(UUID.class, "dataBuffer", ByteBuffer.class);
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
 	/**
 	 * The buffer containing the UUID octets.
+	 *
+	 * For UUIDs created without octets, the buffer is obtained from {@link #decodeDataBuf()} on first access.
+	 *
 	 * @return The buffer containing the UUID octets.
 	 */
 	protected final ByteBuffer dataBuf() {
-		return dataBuffer;
+		ByteBuffer buf = (ByteBuffer) DATA_BUFFER.getAcquire(this);
+		if (buf == null) {
+			// racing threads decode the same octets, so it does not matter whose buffer is kept
+			buf = decodeDataBuf();
+			DATA_BUFFER.setRelease(this, buf);
+		}
+		return buf;
+	}
+
+	/**
+	 * Decode the octets of a UUID which has been created without them.
+	 *
+	 * Subclasses using the {@link #UUID()} constructor must override this method.
+	 *
+	 * @return A new buffer containing the 16 octets of the UUID.
+	 * @throws IllegalStateException If the subclass does not support lazy decoding.
+	 */
+	ByteBuffer decodeDataBuf() {
+		throw new IllegalStateException("UUID has been created without octets.");
+	}
+
+	/**
+	 * Construct a new UUID whose octets are decoded on first access.
+	 *
+	 * This constructor is reserved for the lazily decoded UUIDs of this package, so that no UUID without octets can be
+	 * created elsewhere.
+	 *
+	 * @see #decodeDataBuf()
+	 */
+	UUID() {
 	}
 
 	/**
@@ -109,6 +166,18 @@ public abstract class UUID implements Comparable<UUID>, Serializable {
 		this.dataBuffer.put(octets);
 	}
 
+	/**
+	 * Construct a new UUID from the two halves of its octets.
+	 *
+	 * @param msb The octets 0 to 7 of the UUID in big-endian order.
+	 * @param lsb The octets 8 to 15 of the UUID in big-endian order.
+	 */
+	protected UUID(long msb, long lsb) {
+		this.dataBuffer = ByteBuffer.allocate(16);
+		this.dataBuffer.putLong(0, msb);
+		this.dataBuffer.putLong(8, lsb);
+	}
+
 	/**
 	 * Construct a new UUID from the given octets.
 	 *
@@ -125,6 +194,23 @@ x	 */
 		}
 	}
 
+	/**
+	 * Construct a new UUID from the two halves of its octets.
+	 *
+	 * This constructor also asserts that the resulting UUID is of the named variant.
+	 *
+	 * @param msb The octets 0 to 7 of the UUID in big-endian order.
+	 * @param lsb The octets 8 to 15 of the UUID in big-endian order.
+	 * @param expectedVariant The variant the UUID must be of.
+	 * @throws IllegalArgumentException If the UUID is of a different variant than expected.
+	 */
+	protected UUID(long msb, long lsb, Variant expectedVariant) {
+		this(msb, lsb);
+		if (variant() != expectedVariant) {
+			throw new IllegalArgumentException("UUIDs must be of variant " + expectedVariant);
+		}
+	}
+
 	/**
 	 * Gets a copy of the octets that make up the UUID.
 	 *
@@ -134,6 +220,28 @@ x	 */
 		return dataBuf().array();
 	}
 
+	/**
+	 * Get the most significant 64 bits of the UUID.
+	 *
+	 * These are the octets 0 to 7 interpreted as big-endian number.
+	 *
+	 * @return The most significant 64 bits.
+	 */
+	public long getMostSignificantBits() {
+		return dataBuf().getLong(0);
+	}
+
+	/**
+	 * Get the least significant 64 bits of the UUID.
+	 *
+	 * These are the octets 8 to 15 interpreted as big-endian number.
+	 *
+	 * @return The least significant 64 bits.
+	 */
+	public long getLeastSignificantBits() {
+		return dataBuf().getLong(8);
+	}
+
 	/**
 	 * Parse the standard UUID string representation.
 	 *
@@ -147,29 +255,104 @@ x	 */
 	 * @return The parsed UUID.
 	 */
 	public static UUID parseHex(String uuid) {
-		Matcher match = HEX_PATTERN.matcher(uuid);
-		if (match.matches()) {
-			ByteBuffer b = ByteBuffer.allocate(16);
-
-			int p1 = Integer.parseUnsignedInt(match.group(1), 16);
-			b.putInt(p1);
-			short p2 = (short) Integer.parseUnsignedInt(match.group(2), 16);
-			b.putShort(p2);
-			short p3 = (short) Integer.parseUnsignedInt(match.group(3), 16);
-			b.putShort(p3);
-			short p4 = (short) Integer.parseUnsignedInt(match.group(4), 16);
-			b.putShort(p4);
-			long p5 = Long.parseUnsignedLong(match.group(5), 16);
-			b.putShort((short) ((p5 >> 32) & 0xFFFF));
-			b.putInt((int) (p5 & 0xFFFFFFFF));
-
-			byte[] bytes = b.array();
-			return UUID.buildVariantObject(bytes);
+		if (BatchHexParser.isValid(uuid)) {
+			return UUID.buildVariantObject(BatchHexParser.decodeMsb(uuid), BatchHexParser.decodeLsb(uuid));
 		} else {
 			throw new IllegalArgumentException("Provided input does not satisfy the UUID hex format.");
 		}
 	}
 
+	/**
+	 * Check if the string satisfies the standard UUID string representation accepted by {@link #parseHex(String)}.
+	 * @param uuid The string to check.
+	 * @return True if the string can be parsed.
+	 */
+	public static boolean isValidHex(CharSequence uuid) {
+		return BatchHexParser.isValid(uuid);
+	}
+
+	/**
+	 * Parse the standard UUID string representation without decoding it.
+	 *
+	 * The string is validated immediately, but its value is only decoded when the octets or fields of the UUID are
+	 * accessed, for example by {@link #compareTo(UUID)} or {@link #equals(Object)}.
+	 * If the string is in lowercase, {@link #toString()} returns it without formatting the UUID again.
+	 * This is useful for UUIDs which are mostly passed through.
+	 *
+	 * <p>The returned UUID keeps a copy of the 36 characters, so the character sequence may be modified or discarded
+	 * afterwards.</p>
+	 *
+	 * @param uuid The UUID string representation.
+	 * @throws IllegalArgumentException If the string does not satisfy the pattern.
+	 * @return The parsed UUID, which is a {@link StandardUUID} for RFC 4122 UUIDs.
+	 * @see #parseHex(String)
+	 */
+	public static UUID parseHexLazy(CharSequence uuid) {
+		if (BatchHexParser.isValid(uuid)) {
+			return LazyHex.create(new LazyHex(uuid));
+		} else {
+			throw new IllegalArgumentException("Provided input does not satisfy the UUID hex format.");
+		}
+	}
+
+	/**
+	 * Parse the standard UUID string representation from ASCII characters without decoding it.
+	 *
+	 * <p>The returned UUID keeps a copy of the 36 characters, so the array may be modified or discarded afterwards.</p>
+	 *
+	 * @param ascii The array containing the ASCII representation of the UUID.
+	 * @param offset The offset of the first character of the UUID.
+	 * @throws IllegalArgumentException If the characters do not satisfy the pattern.
+	 * @throws IndexOutOfBoundsException If the array does not contain 36 characters at the offset.
+	 * @return The parsed UUID, which is a {@link StandardUUID} for RFC 4122 UUIDs.
+	 * @see #parseHexLazy(CharSequence)
+	 */
+	public static UUID parseHexLazy(byte[] ascii, int offset) {
+		if (BatchHexParser.isValid(ascii, offset)) {
+			return LazyHex.create(new LazyHex(ascii, offset));
+		} else {
+			throw new IllegalArgumentException("Provided input does not satisfy the UUID hex format.");
+		}
+	}
+
+	/**
+	 * Parse the decimal representation of a UUID.
+	 *
+	 * The number is interpreted as the unsigned 128 bit value of the UUID octets in big-endian order.
+	 * Leading zeros are not allowed, except for the number {@code 0} itself.
+	 *
+	 * @param uuid The UUID decimal representation.
+	 * @throws IllegalArgumentException If the string is not a canonical decimal number or exceeds 128 bits.
+	 * @return The parsed UUID.
+	 * @see #toStringDecimal()
+	 */
+	public static UUID parseDecimal(String uuid) {
+		return Decimal128.parse(uuid, 0);
+	}
+
+	/**
+	 * Parse the OID or OID URN representation of a UUID.
+	 *
+	 * Both forms {@code 2.25.<decimal>} and {@code urn:oid:2.25.<decimal>} are accepted.
+	 * As required by X.660, the arc must not have leading zeros, except for the arc {@code 0} itself.
+	 *
+	 * @param oid The UUID OID representation.
+	 * @throws IllegalArgumentException If the string is not an OID below {@code 2.25}, the arc is not canonical or the
+	 *     number exceeds 128 bits.
+	 * @return The parsed UUID.
+	 * @see #toStringOid()
+	 * @see #toOidUrn()
+	 */
+	public static UUID parseOid(String oid) {
+		if (oid.startsWith(OID_PREFIX)) {
+			return Decimal128.parse(oid, OID_PREFIX.length());
+		} else if (oid.regionMatches(true, 0, OID_URN_PREFIX, 0, OID_URN_PREFIX.length())) {
+			return Decimal128.parse(oid, OID_URN_PREFIX.length());
+		} else {
+			throw new IllegalArgumentException("Provided input is not an OID below the UUID arc 2.25.");
+		}
+	}
+
 	/**
 	 * Load the UUID from the given byte array.
 	 * @param bytes The octets of the  UUID.
@@ -181,6 +364,50 @@ x	 */
 		return UUID.buildVariantObject(bytes);
 	}
 
+	/**
+	 * Load the UUID from 16 octets at the given offset of a byte array.
+	 *
+	 * The octets are read directly from the array without copying them into a separate array first.
+	 *
+	 * @param src The array containing the octets of the UUID.
+	 * @param offset The offset of the first octet in the array.
+	 * @return The UUID object.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given offset.
+	 */
+	public static UUID fromBytes(byte[] src, int offset) {
+		long msb = (long) UUIDBits.LONG_ARRAY_VIEW.get(src, offset);
+		long lsb = (long) UUIDBits.LONG_ARRAY_VIEW.get(src, offset + 8);
+		return UUID.buildVariantObject(msb, lsb);
+	}
+
+	/**
+	 * Load the UUID from 16 octets at the given index of a buffer.
+	 *
+	 * The octets are read in network byte order, regardless of the byte order configured for the buffer.
+	 * The position of the buffer is not modified.
+	 *
+	 * @param src The buffer containing the octets of the UUID.
+	 * @param index The index of the first octet in the buffer.
+	 * @return The UUID object.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given index.
+	 */
+	public static UUID fromBuffer(ByteBuffer src, int index) {
+		long msb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, index);
+		long lsb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, index + 8);
+		return UUID.buildVariantObject(msb, lsb);
+	}
+
+	/**
+	 * Create the UUID from its two 64 bit halves.
+	 *
+	 * @param msb The most significant 64 bits (octets 0 to 7) of the UUID.
+	 * @param lsb The least significant 64 bits (octets 8 to 15) of the UUID.
+	 * @return The UUID object.
+	 */
+	public static UUID fromLongs(long msb, long lsb) {
+		return UUID.buildVariantObject(msb, lsb);
+	}
+
 	/**
 	 * Build the object matching the variant of the UUID.
 	 *
@@ -204,6 +431,93 @@ x	 */
 		}
 	}
 
+	/**
+	 * Build the object matching the variant of the UUID.
+	 *
+	 * This method works like {@link #buildVariantObject(byte[])}, but takes the octets as two numbers.
+	 *
+	 * @param msb The octets 0 to 7 of the UUID in big-endian order.
+	 * @param lsb The octets 8 to 15 of the UUID in big-endian order.
+	 * @return The UUID object.
+	 */
+	protected static UUID buildVariantObject(long msb, long lsb) {
+		switch (Variant.fromVariantOctet((int) (lsb >>> 56))) {
+			case RFC_4122:
+				return new StandardUUID(msb, lsb);
+			case MICROSOFT:
+			case RESERVED:
+			case NCS:
+			default:
+				return new UnknownUUID(msb, lsb);
+		}
+	}
+
+	/**
+	 * Write the 16 octets of the UUID to the given output.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeLong(getMostSignificantBits());
+		out.writeLong(getLeastSignificantBits());
+	}
+
+	/**
+	 * Read a UUID from its 16 octets in the given input.
+	 *
+	 * @param in The input to read from.
+	 * @return The UUID object.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static UUID readFrom(DataInput in) throws IOException {
+		long msb = in.readLong();
+		long lsb = in.readLong();
+		return UUID.buildVariantObject(msb, lsb);
+	}
+
+	/**
+	 * Write the 16 octets of the UUID to the given buffer.
+	 *
+	 * The octets are written at the current position of the buffer in network byte order, regardless of the byte order
+	 * configured for the buffer.
+	 * The position is advanced by 16.
+	 *
+	 * @param dst The buffer to write to.
+	 * @throws BufferOverflowException If there are fewer than 16 octets remaining in the buffer.
+	 */
+	public void writeTo(ByteBuffer dst) {
+		// checked up front, so that no partial UUID is written
+		if (dst.remaining() < 16) {
+			throw new BufferOverflowException();
+		}
+		int pos = dst.position();
+		UUIDBits.LONG_BUFFER_VIEW.set(dst, pos, getMostSignificantBits());
+		UUIDBits.LONG_BUFFER_VIEW.set(dst, pos + 8, getLeastSignificantBits());
+		dst.position(pos + 16);
+	}
+
+	/**
+	 * Read a UUID from its 16 octets in the given buffer.
+	 *
+	 * The octets are read from the current position of the buffer in network byte order, regardless of the byte order
+	 * configured for the buffer.
+	 * The position is advanced by 16.
+	 *
+	 * @param src The buffer to read from.
+	 * @return The UUID object.
+	 * @throws BufferUnderflowException If there are fewer than 16 octets remaining in the buffer.
+	 */
+	public static UUID readFrom(ByteBuffer src) {
+		if (src.remaining() < 16) {
+			throw new BufferUnderflowException();
+		}
+		int pos = src.position();
+		UUID result = UUID.fromBuffer(src, pos);
+		src.position(pos + 16);
+		return result;
+	}
+
 	/**
 	 * Get the variant value of the UUID.
 	 * @return The variant value of the UUID.
@@ -232,27 +546,34 @@ x	 */
 	 */
 	@Override
 	public String toString() {
-		return String.format("%08x-%04x-%04x-%04x-%04x%08x",
-			dataBuf().getInt(0),
-			dataBuf().getShort(4),
-			dataBuf().getShort(6),
-			dataBuf().getShort(8),
-			dataBuf().getShort(10),
-			dataBuf().getInt(12)
-		);
+		byte[] chars = new byte[BatchHexParser.HEX_LENGTH];
+		BatchHexFormatter.format(getMostSignificantBits(), getLeastSignificantBits(), chars, 0);
+		return new String(chars, StandardCharsets.US_ASCII);
 	}
 
 	/**
 	 * Prints the decimal representation of the UUID.
 	 *
-	 * <p>The decimal representation is the UUID octets printed as a decimal number.</p>
-	 * <p>This implementation uses {@link BigInteger#toString(int)} with radix 10 to create the string representation.</p>
+	 * <p>The decimal representation is the UUID octets interpreted as an unsigned 128 bit number in big-endian order.</p>
 	 *
 	 * @return The decimal representation of the UUID.
 	 */
 	public String toStringDecimal() {
-		BigInteger bigInt = new BigInteger(dataBuf().array());
-		return bigInt.toString(10);
+		return Decimal128.toString("", getMostSignificantBits(), getLeastSignificantBits());
+	}
+
+	/**
+	 * Prints the OID representation of the UUID.
+	 *
+	 * The OID representation is the decimal representation below the arc {@code 2.25} as defined in ITU-T X.667.
+	 * <pre>
+	 *   2.25.1512366075204170929049582354406559215
+	 * </pre>
+	 *
+	 * @return The OID representation of the UUID.
+	 */
+	public String toStringOid() {
+		return Decimal128.toString(OID_PREFIX, getMostSignificantBits(), getLeastSignificantBits());
 	}
 
 	/**
@@ -281,12 +602,13 @@ x	 */
 	/**
 	 * Prints the OID URN representation of the UUID.
 	 *
-	 * The OID URN representation is identical to the decimal representation with the additional prefix {@code urn:oid}.
+	 * The OID URN representation is identical to the OID representation with the additional prefix {@code urn:oid}.
 	 *
 	 * @return The URN OID representation of the UUID.
+	 * @see #toStringOid()
 	 */
 	public URI toOidUrn() {
-		return URI.create("urn:oid:" + toStringDecimal());
+		return URI.create(Decimal128.toString(OID_URN_PREFIX, getMostSignificantBits(), getLeastSignificantBits()));
 	}
 
 	@Override
@@ -301,22 +623,22 @@ x	 */
 
 	@Override
 	public int compareTo(UUID o) {
-		long h1 = this.dataBuf().getLong(0);
-		long h2 = o.dataBuf().getLong(0);
-		int c1 = Long.compareUnsigned(h1, h2);
-		if (c1 != 0) {
-			return c1;
-		} else {
-			long l1 = this.dataBuf().getLong(8);
-			long l2 = o.dataBuf().getLong(8);
-			int c2 = Long.compareUnsigned(l1, l2);
-			return c2;
-		}
+		return UUIDBits.compare(getMostSignificantBits(), getLeastSignificantBits(),
+			o.getMostSignificantBits(), o.getLeastSignificantBits());
 	}
 
+	/**
+	 * Compute the hash code of the UUID.
+	 *
+	 * The hash code is computed from the octets of the UUID only, so it is consistent with {@link #equals(Object)}
+	 * regardless of how the UUID has been created.
+	 *
+	 * @return The hash code.
+	 */
 	@Override
 	public int hashCode() {
-		return this.dataBuffer.hashCode();
+		long bits = dataBuf().getLong(0) ^ dataBuf().getLong(8);
+		return (int) (bits >> 32) ^ (int) bits;
 	}
 
 	/**
@@ -361,20 +683,25 @@ x	 */
 
 
 	/**
-	 * Method for custom serialization.
+	 * Replace the UUID with its compact serialized form.
 	 *
-	 * @param out The object output stream.
-	 * @throws IOException If an I/O error occurs.
+	 * The serialized form only contains the 16 octets of the UUID.
+	 * On deserialization the object matching the variant is created.
+	 *
+	 * @return The object written to the stream instead of this UUID.
+	 * @throws ObjectStreamException Never thrown, declared as required by the serialization mechanism.
 	 * @see Serializable
 	 */
-	private void writeObject(java.io.ObjectOutputStream out) throws IOException {
-		out.defaultWriteObject();
-		out.writeObject(dataBuf().array());
+	protected Object writeReplace() throws ObjectStreamException {
+		return new SerialForm(getMostSignificantBits(), getLeastSignificantBits());
 	}
 
 	/**
 	 * Method for custom deserialization.
 	 *
+	 * UUIDs are written in their compact serialized form, so this method is only used for streams written by earlier
+	 * versions of this library.
+	 *
 	 * @param in The object input stream.
 	 * @throws IOException If an I/O error occurs.
 	 * @throws ClassNotFoundException If the class of the serialized object cannot be found.
@@ -0,0 +1,289 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.time.Instant;
+
+/**
+ * Helper functions operating on the two 64 bit halves of a UUID.
+ *
+ * The most significant half contains the octets 0 to 7, the least significant half the octets 8 to 15.
+ */
+final class UUIDBits {
+
+	/** Number of 100ns intervals between the start of the gregorian calendar and the unix epoch. */
+	static final long GREGORIAN_OFFSET_100NS = 0x01B21DD213814000L;
+	/** Largest value of a 60 bit timestamp of version 1 and 6 UUIDs. */
+	static final long MAX_TIMESTAMP_100NS = (1L << 60) - 1;
+	/** Largest value of the 48 bit millisecond timestamp of version 7 UUIDs. */
+	static final long MAX_TIMESTAMP_MILLIS = (1L << 48) - 1;
+
+	/** Big-endian long view on byte arrays, accessible at any offset. */
+	static final VarHandle LONG_ARRAY_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	/** Big-endian long view on byte buffers, independent of the byte order configured for the buffer. */
+	static final VarHandle LONG_BUFFER_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	private UUIDBits() {
+	}
+
+	/**
+	 * Get the version nibble.
+	 * @param msb The most significant half of the UUID.
+	 * @return The version number.
+	 */
+	static int version(long msb) {
+		return (int) (msb >>> 12) & 0x0F;
+	}
+
+	/**
+	 * Check if the UUID is of the RFC 4122 variant.
+	 * @param lsb The least significant half of the UUID.
+	 * @return True if the variant bits are {@code 10}.
+	 */
+	static boolean isRfc4122(long lsb) {
+		return (lsb >>> 62) == 0b10;
+	}
+
+	/**
+	 * Reassemble the 60 bit timestamp of a version 1 UUID.
+	 * @param msb The most significant half of the UUID.
+	 * @return The timestamp in 100ns intervals since the start of the gregorian calendar.
+	 */
+	static long v1Timestamp(long msb) {
+		return (msb & 0x0FFFL) << 48
+			| ((msb >>> 16) & 0xFFFFL) << 32
+			| msb >>> 32;
+	}
+
+	/**
+	 * Read the 60 bit timestamp of a version 6 UUID.
+	 * @param msb The most significant half of the UUID.
+	 * @return The timestamp in 100ns intervals since the start of the gregorian calendar.
+	 */
+	static long v6Timestamp(long msb) {
+		return (msb >>> 16) << 12 | (msb & 0x0FFFL);
+	}
+
+	/**
+	 * Read the 48 bit timestamp of a version 7 UUID.
+	 * @param msb The most significant half of the UUID.
+	 * @return The timestamp in milliseconds since the unix epoch.
+	 */
+	static long v7Millis(long msb) {
+		return msb >>> 16;
+	}
+
+	/**
+	 * Read the combined timestamp fields.
+	 *
+	 * For version 1 UUIDs, the timestamp is reassembled from its reversed fields.
+	 * For all other versions, the 60 bits of the time fields are returned in the order they appear in the UUID.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @return The timestamp value.
+	 */
+	static long timestamp(long msb) {
+		if (version(msb) == 1) {
+			return v1Timestamp(msb);
+		} else {
+			return v6Timestamp(msb);
+		}
+	}
+
+	/**
+	 * Check if the UUID contains a timestamp that can be converted to a point in time.
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return True for RFC 4122 UUIDs of versions 1, 6 and 7.
+	 */
+	static boolean isTimeBased(long msb, long lsb) {
+		int version = version(msb);
+		return (version == 1 || version == 6 || version == 7) && isRfc4122(lsb);
+	}
+
+	/**
+	 * Read the timestamp of a time based UUID as milliseconds since the unix epoch.
+	 *
+	 * Timestamps of versions 1 and 6 are rounded towards the beginning of the millisecond.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The milliseconds, or {@link Long#MIN_VALUE} if the UUID is not an RFC 4122 UUID of version 1, 6 or 7.
+	 */
+	static long epochMillis(long msb, long lsb) {
+		if (!isRfc4122(lsb)) {
+			return Long.MIN_VALUE;
+		}
+		switch (version(msb)) {
+			case 1:
+				return Math.floorDiv(v1Timestamp(msb) - GREGORIAN_OFFSET_100NS, 10_000);
+			case 6:
+				return Math.floorDiv(v6Timestamp(msb) - GREGORIAN_OFFSET_100NS, 10_000);
+			case 7:
+				return v7Millis(msb);
+			default:
+				return Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Convert the timestamp of a time based UUID to an instant.
+	 * @param msb The most significant half of the UUID, must be of version 1, 6 or 7.
+	 * @return The instant with the precision of the UUID version.
+	 */
+	static Instant instant(long msb) {
+		long ts;
+		switch (version(msb)) {
+			case 1:
+				ts = v1Timestamp(msb) - GREGORIAN_OFFSET_100NS;
+				break;
+			case 6:
+				ts = v6Timestamp(msb) - GREGORIAN_OFFSET_100NS;
+				break;
+			default:
+				return Instant.ofEpochMilli(v7Millis(msb));
+		}
+		return Instant.ofEpochSecond(Math.floorDiv(ts, 10_000_000), Math.floorMod(ts, 10_000_000) * 100);
+	}
+
+	/**
+	 * Read the 14 bit clock sequence.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The clock sequence value.
+	 */
+	static short clockSequence(long lsb) {
+		return (short) ((lsb >>> 48) & 0x3FFF);
+	}
+
+	/**
+	 * Read the 48 bit node value.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The node value.
+	 */
+	static long node(long lsb) {
+		return lsb & 0x0000FFFFFFFFFFFFL;
+	}
+
+	/**
+	 * Compare two UUIDs by their octets.
+	 * @param msb1 The most significant half of the first UUID.
+	 * @param lsb1 The least significant half of the first UUID.
+	 * @param msb2 The most significant half of the second UUID.
+	 * @param lsb2 The least significant half of the second UUID.
+	 * @return A negative number, zero or a positive number as the first UUID is less than, equal to or greater than
+	 *     the second.
+	 */
+	static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+		int c = Long.compareUnsigned(msb1, msb2);
+		if (c != 0) {
+			return c;
+		} else {
+			return Long.compareUnsigned(lsb1, lsb2);
+		}
+	}
+
+	/**
+	 * Convert an instant to 100ns intervals since the start of the gregorian calendar.
+	 *
+	 * Values outside the range of the 60 bit timestamp are clamped to the smallest or largest possible value.
+	 *
+	 * @param instant The instant to convert.
+	 * @return The timestamp value.
+	 */
+	static long gregorianTimestamp(Instant instant) {
+		long maxSeconds = (MAX_TIMESTAMP_100NS - GREGORIAN_OFFSET_100NS) / 10_000_000;
+		long minSeconds = -GREGORIAN_OFFSET_100NS / 10_000_000;
+		long seconds = instant.getEpochSecond();
+		if (seconds < minSeconds) {
+			return 0;
+		} else if (seconds >= maxSeconds) {
+			return MAX_TIMESTAMP_100NS;
+		} else {
+			return seconds * 10_000_000 + instant.getNano() / 100 + GREGORIAN_OFFSET_100NS;
+		}
+	}
+
+	/**
+	 * Convert an instant to milliseconds since the unix epoch.
+	 *
+	 * Values outside the range of the 48 bit timestamp are clamped to the smallest or largest possible value.
+	 *
+	 * @param instant The instant to convert.
+	 * @return The timestamp value.
+	 */
+	static long unixMillis(Instant instant) {
+		long seconds = instant.getEpochSecond();
+		if (seconds < 0) {
+			return 0;
+		} else if (seconds >= MAX_TIMESTAMP_MILLIS / 1000) {
+			return MAX_TIMESTAMP_MILLIS;
+		} else {
+			return seconds * 1000 + instant.getNano() / 1_000_000;
+		}
+	}
+
+	/**
+	 * Stafford's variant 13 of the 64 bit finalizer of MurmurHash3.
+	 *
+	 * @param z The value to mix.
+	 * @return The mixed value.
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Hash both halves of a UUID into a single uniformly distributed value.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The hash value.
+	 */
+	static long hash(long msb, long lsb) {
+		return mix(msb ^ mix(lsb + 0x9E3779B97F4A7C15L));
+	}
+
+	/**
+	 * Get a uniformly distributed 64 bit value from a UUID.
+	 *
+	 * The octets of random (version 4) and name based (versions 3 and 5) UUIDs are already uniformly distributed
+	 * except for the version and variant bits.
+	 * For these UUIDs the value is taken directly from the UUID, with the variant bits rotated onto random bits of the
+	 * other half.
+	 * All other UUIDs are hashed with {@link #hash(long, long)}.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The hash value.
+	 */
+	static long uniformHash(long msb, long lsb) {
+		int version = version(msb);
+		if ((version == 3 || version == 4 || version == 5) && isRfc4122(lsb)) {
+			return msb ^ Long.rotateLeft(lsb, 2);
+		} else {
+			return hash(msb, lsb);
+		}
+	}
+
+}
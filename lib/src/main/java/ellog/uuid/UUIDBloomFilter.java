@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Blocked Bloom filter for UUIDs.
+ *
+ * <p>The filter answers whether a UUID has definitely not been added before.
+ * Each UUID sets 8 bits within a single block of 256 bits, so each operation touches only one cache line.
+ * The hash value is taken directly from the bits of random and name based UUIDs, all other UUIDs are mixed first, so
+ * that time based UUIDs with common prefixes are distributed evenly as well.</p>
+ *
+ * <p>The filter is stored in a {@link ByteBuffer} together with a small header describing its size.
+ * This buffer can be written to a file with {@link #writeTo(WritableByteChannel)} and be used again with
+ * {@link #load(ByteBuffer)}, for example on a memory mapped file.
+ * As the size of a buffer is limited to 2 GiB, a single filter holds up to about 1.3 billion UUIDs at a false positive
+ * rate of 1%.
+ * Larger sets can be split over multiple filters with a {@link ShardRouter}.</p>
+ *
+ * <p>Instances of this class are not thread safe.</p>
+ */
+public final class UUIDBloomFilter {
+
+	private static final long MAGIC = 0x5555494442424631L; // UUIDBBF1
+	private static final int HEADER_SIZE = 32;
+	private static final int OFFSET_BLOCKS = 8;
+	private static final int BLOCK_SIZE = 32;
+	private static final int MAX_BLOCKS = (Integer.MAX_VALUE - HEADER_SIZE) / BLOCK_SIZE;
+	private static final int BITS_PER_UUID = 8;
+	private static final double BLOCK_LOAD_FACTOR = 1.15;
+	private static final int[] SALT = {
+		0x47B6137B, 0x44974D91, 0x8824AD5B, 0xA2B7289D, 0x705495C7, 0x2DF1424B, 0x9EFC4947, 0x5C6BFB31
+	};
+
+	private final ByteBuffer data;
+	private final int blockCount;
+
+	private UUIDBloomFilter(ByteBuffer data, int blockCount) {
+		this.data = data;
+		this.blockCount = blockCount;
+	}
+
+	/**
+	 * Create an empty filter on the heap.
+	 *
+	 * @param expectedInsertions The number of UUIDs expected to be added to the filter.
+	 * @param falsePositiveRate The desired probability that {@link #mightContain(UUID)} returns true for a UUID that
+	 *     has not been added, once the expected number of UUIDs has been added.
+	 * @return The filter instance.
+	 * @throws IllegalArgumentException If the number of insertions is negative, the rate is not between 0 and 1 or the
+	 *     filter would exceed the maximum size.
+	 */
+	public static UUIDBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+		if (expectedInsertions < 0) {
+			throw new IllegalArgumentException("The number of expected insertions must not be negative.");
+		}
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("The false positive rate must be between 0 and 1.");
+		}
+		// optimal size of a filter with a fixed number of bits per element
+		double bits = -BITS_PER_UUID * (double) expectedInsertions
+			/ Math.log(1 - Math.pow(falsePositiveRate, 1.0 / BITS_PER_UUID));
+		// the uneven load of the blocks raises the false positive rate, which is compensated with more space
+		double blocks = Math.max(1, Math.ceil(bits * BLOCK_LOAD_FACTOR / (BLOCK_SIZE * 8)));
+		if (blocks > MAX_BLOCKS) {
+			throw new IllegalArgumentException("The requested filter exceeds the maximum size of a single filter.");
+		}
+		int blockCount = (int) blocks;
+		ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + blockCount * BLOCK_SIZE);
+		data.putLong(0, MAGIC);
+		data.putInt(OFFSET_BLOCKS, blockCount);
+		return new UUIDBloomFilter(data, blockCount);
+	}
+
+	/**
+	 * Use the filter stored in the given buffer.
+	 *
+	 * The filter starts at the current position of the buffer.
+	 * The content of the buffer is not copied, so changes of the filter are written through to the buffer.
+	 * A read-only buffer results in a filter which fails when UUIDs are added.
+	 *
+	 * @param buffer The buffer containing the filter as written by {@link #writeTo(WritableByteChannel)}.
+	 * @return The filter instance.
+	 * @throws IllegalArgumentException If the buffer does not contain a valid filter.
+	 */
+	public static UUIDBloomFilter load(ByteBuffer buffer) {
+		ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		if (data.remaining() < HEADER_SIZE || data.getLong(0) != MAGIC) {
+			throw new IllegalArgumentException("Buffer does not contain a UUID Bloom filter.");
+		}
+		int blockCount = data.getInt(OFFSET_BLOCKS);
+		if (blockCount < 1 || blockCount > MAX_BLOCKS || data.remaining() < HEADER_SIZE + blockCount * BLOCK_SIZE) {
+			throw new IllegalArgumentException("Buffer does not contain a complete UUID Bloom filter.");
+		}
+		data.limit(HEADER_SIZE + blockCount * BLOCK_SIZE);
+		return new UUIDBloomFilter(data, blockCount);
+	}
+
+	/**
+	 * Get the size of the filter including its header.
+	 *
+	 * @return The number of octets written by {@link #writeTo(WritableByteChannel)}.
+	 */
+	public int sizeInBytes() {
+		return data.limit();
+	}
+
+	/**
+	 * Write the filter to the given channel.
+	 *
+	 * @param channel The channel to write to.
+	 * @throws IOException If writing to the channel fails.
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer src = data.duplicate();
+		src.clear();
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+
+	/**
+	 * Add the UUID to the filter.
+	 *
+	 * @param uuid The UUID to add.
+	 * @return True if the filter changed, which means the UUID has definitely not been added before.
+	 */
+	public boolean put(UUID uuid) {
+		return put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Add a UUID given by its halves to the filter.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return True if the filter changed, which means the UUID has definitely not been added before.
+	 */
+	public boolean put(long msb, long lsb) {
+		long hash = UUIDBits.uniformHash(msb, lsb);
+		int block = blockOffset(hash);
+		int key = (int) hash;
+		boolean changed = false;
+		for (int i = 0; i < BITS_PER_UUID; i++) {
+			int offset = block + 4 * i;
+			int word = data.getInt(offset);
+			int updated = word | bit(key, i);
+			if (updated != word) {
+				data.putInt(offset, updated);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Check if the UUID might have been added to the filter.
+	 *
+	 * @param uuid The UUID to check.
+	 * @return False if the UUID has definitely not been added, true if it probably has been added.
+	 */
+	public boolean mightContain(UUID uuid) {
+		return mightContain(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Check if a UUID given by its halves might have been added to the filter.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return False if the UUID has definitely not been added, true if it probably has been added.
+	 */
+	public boolean mightContain(long msb, long lsb) {
+		long hash = UUIDBits.uniformHash(msb, lsb);
+		int block = blockOffset(hash);
+		int key = (int) hash;
+		for (int i = 0; i < BITS_PER_UUID; i++) {
+			int mask = bit(key, i);
+			if ((data.getInt(block + 4 * i) & mask) != mask) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int blockOffset(long hash) {
+		// map the upper half of the hash to the block range without a division
+		int block = (int) (((hash >>> 32) * blockCount) >>> 32);
+		return HEADER_SIZE + block * BLOCK_SIZE;
+	}
+
+	private static int bit(int key, int word) {
+		return 1 << ((key * SALT[word]) >>> 27);
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.util.Comparator;
+
+/**
+ * Comparators and sort keys for UUIDs.
+ *
+ * <p>The natural order of {@link UUID} compares the 16 octets as unsigned numbers.
+ * For version 1 UUIDs this order is not chronological, because the least significant part of the timestamp is stored
+ * first.
+ * The comparators in this class read the fields directly from the two 64 bit halves of the UUIDs and do not allocate
+ * any objects.</p>
+ *
+ * <p>The sort keys are {@code long} prefixes of the respective order.
+ * When two keys compare with {@link Long#compare(long, long)} as less or greater, the UUIDs compare the same way with the
+ * respective comparator.
+ * Equal keys must be resolved with the comparator.</p>
+ */
+public final class UUIDComparators {
+
+	private static final Comparator<UUID> BYTE_ORDER = (a, b) -> UUIDBits.compare(
+		a.getMostSignificantBits(), a.getLeastSignificantBits(),
+		b.getMostSignificantBits(), b.getLeastSignificantBits());
+	private static final Comparator<UUID> V1_TIME_ORDER = (a, b) -> compareV1Time(
+		a.getMostSignificantBits(), a.getLeastSignificantBits(),
+		b.getMostSignificantBits(), b.getLeastSignificantBits());
+	private static final Comparator<UUID> SIGNED_ORDER = (a, b) -> compareSigned(
+		a.getMostSignificantBits(), a.getLeastSignificantBits(),
+		b.getMostSignificantBits(), b.getLeastSignificantBits());
+
+	private UUIDComparators() {
+	}
+
+	/**
+	 * Order UUIDs by their octets.
+	 *
+	 * This is the same order as {@link UUID#compareTo(UUID)}.
+	 *
+	 * @return The comparator.
+	 */
+	public static Comparator<UUID> byteOrder() {
+		return BYTE_ORDER;
+	}
+
+	/**
+	 * Order UUIDs by the timestamp of version 1 UUIDs.
+	 *
+	 * The UUIDs are ordered by the reassembled 60 bit timestamp, then by the clock sequence and finally by their octets.
+	 * The fields are interpreted according to the version 1 layout regardless of the actual version of the UUIDs.
+	 *
+	 * @return The comparator.
+	 */
+	public static Comparator<UUID> v1TimeOrder() {
+		return V1_TIME_ORDER;
+	}
+
+	/**
+	 * Order UUIDs like {@link java.util.UUID#compareTo(java.util.UUID)}.
+	 *
+	 * The JDK class compares both 64 bit halves as signed numbers, which differs from the octet order for all UUIDs with
+	 * the highest bit of either half set.
+	 *
+	 * @return The comparator.
+	 */
+	public static Comparator<UUID> javaUtilOrder() {
+		return SIGNED_ORDER;
+	}
+
+	/**
+	 * Compare two UUIDs given by their halves by the timestamp of version 1 UUIDs.
+	 *
+	 * @param msb1 The most significant half of the first UUID.
+	 * @param lsb1 The least significant half of the first UUID.
+	 * @param msb2 The most significant half of the second UUID.
+	 * @param lsb2 The least significant half of the second UUID.
+	 * @return A negative number, zero or a positive number as the first UUID is less than, equal to or greater than
+	 *     the second.
+	 * @see #v1TimeOrder()
+	 */
+	public static int compareV1Time(long msb1, long lsb1, long msb2, long lsb2) {
+		int c = Long.compare(UUIDBits.v1Timestamp(msb1), UUIDBits.v1Timestamp(msb2));
+		if (c != 0) {
+			return c;
+		}
+		c = Integer.compare(UUIDBits.clockSequence(lsb1), UUIDBits.clockSequence(lsb2));
+		if (c != 0) {
+			return c;
+		}
+		return UUIDBits.compare(msb1, lsb1, msb2, lsb2);
+	}
+
+	/**
+	 * Compare two UUIDs given by their halves like {@link java.util.UUID#compareTo(java.util.UUID)}.
+	 *
+	 * @param msb1 The most significant half of the first UUID.
+	 * @param lsb1 The least significant half of the first UUID.
+	 * @param msb2 The most significant half of the second UUID.
+	 * @param lsb2 The least significant half of the second UUID.
+	 * @return A negative number, zero or a positive number as the first UUID is less than, equal to or greater than
+	 *     the second.
+	 * @see #javaUtilOrder()
+	 */
+	public static int compareSigned(long msb1, long lsb1, long msb2, long lsb2) {
+		int c = Long.compare(msb1, msb2);
+		if (c != 0) {
+			return c;
+		} else {
+			return Long.compare(lsb1, lsb2);
+		}
+	}
+
+	/**
+	 * Get the sort key of the UUID for the octet order.
+	 *
+	 * @param uuid The UUID.
+	 * @return The key, comparable with {@link Long#compare(long, long)}.
+	 * @see #byteOrder()
+	 */
+	public static long byteOrderKey(UUID uuid) {
+		return byteOrderKey(uuid.getMostSignificantBits());
+	}
+
+	/**
+	 * Get the sort key of a UUID for the octet order.
+	 *
+	 * The key consists of the first 8 octets with the sign bit flipped.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @return The key, comparable with {@link Long#compare(long, long)}.
+	 * @see #byteOrder()
+	 */
+	public static long byteOrderKey(long msb) {
+		return msb ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Get the sort key of the UUID for the version 1 timestamp order.
+	 *
+	 * @param uuid The UUID.
+	 * @return The key, comparable with {@link Long#compare(long, long)}.
+	 * @see #v1TimeOrder()
+	 */
+	public static long v1TimeKey(UUID uuid) {
+		return v1TimeKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Get the sort key of a UUID for the version 1 timestamp order.
+	 *
+	 * The key consists of the 60 bit timestamp followed by the 4 highest bits of the clock sequence with the sign bit
+	 * flipped.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The key, comparable with {@link Long#compare(long, long)}.
+	 * @see #v1TimeOrder()
+	 */
+	public static long v1TimeKey(long msb, long lsb) {
+		return (UUIDBits.v1Timestamp(msb) << 4 | UUIDBits.clockSequence(lsb) >>> 10) ^ Long.MIN_VALUE;
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lossless conversion between the version 1 and version 6 layout of time based UUIDs.
+ *
+ * <p>Both versions contain the same 60 bit timestamp, clock sequence and node.
+ * Version 6 stores the timestamp from the most to the least significant bits, so that the UUIDs sort by their creation
+ * time, while version 1 starts with the least significant part of the timestamp.
+ * The conversion only rearranges the timestamp fields in the most significant half of the UUID, the least significant
+ * half is kept as is.
+ * Converting a UUID to the other version and back results in the original UUID.</p>
+ *
+ * <p>The bulk methods convert packed arrays in place and buffers in a streaming fashion without creating any objects.
+ * UUIDs which are not of the RFC 4122 variant or not of the source version are left unchanged.</p>
+ */
+public final class UUIDConversions {
+
+	private static final long VERSION_MASK = 0xF000L;
+	private static final long V1_BITS = 0x1000L;
+	private static final long V6_BITS = 0x6000L;
+
+	private UUIDConversions() {
+	}
+
+	/**
+	 * Convert the most significant half of a version 1 UUID to version 6.
+	 *
+	 * @param msb The most significant half of a version 1 UUID.
+	 * @return The most significant half of the version 6 UUID with the same timestamp.
+	 */
+	public static long v1ToV6(long msb) {
+		long ts = UUIDBits.v1Timestamp(msb);
+		return (ts >>> 12) << 16 | V6_BITS | ts & 0x0FFFL;
+	}
+
+	/**
+	 * Convert the most significant half of a version 6 UUID to version 1.
+	 *
+	 * @param msb The most significant half of a version 6 UUID.
+	 * @return The most significant half of the version 1 UUID with the same timestamp.
+	 */
+	public static long v6ToV1(long msb) {
+		long ts = UUIDBits.v6Timestamp(msb);
+		return ts << 32 | ((ts >>> 32) & 0xFFFFL) << 16 | V1_BITS | (ts >>> 48) & 0x0FFFL;
+	}
+
+	/**
+	 * Convert all version 1 UUIDs in the packed array to version 6.
+	 *
+	 * The array contains the most significant half of UUID {@code i} at index {@code 2*i} and the least significant
+	 * half at index {@code 2*i+1}.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @return The number of converted UUIDs.
+	 * @throws IllegalArgumentException If the length of the array is odd.
+	 */
+	public static int v1ToV6(long[] packed) {
+		return convert(packed, V1_BITS, true);
+	}
+
+	/**
+	 * Convert all version 6 UUIDs in the packed array to version 1.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @return The number of converted UUIDs.
+	 * @throws IllegalArgumentException If the length of the array is odd.
+	 * @see #v1ToV6(long[])
+	 */
+	public static int v6ToV1(long[] packed) {
+		return convert(packed, V6_BITS, false);
+	}
+
+	/**
+	 * Convert version 1 UUIDs from one buffer to version 6 UUIDs in another buffer.
+	 *
+	 * The UUIDs are stored as 16 octets each in network byte order.
+	 * As many complete UUIDs as fit into the remaining space of both buffers are transferred, and the positions of both
+	 * buffers are advanced accordingly.
+	 * This allows to convert a stream of UUIDs by alternately filling the source and draining the destination buffer.
+	 *
+	 * @param src The buffer containing the UUIDs to convert.
+	 * @param dst The buffer receiving the converted UUIDs.
+	 * @return The number of transferred UUIDs.
+	 * @throws java.nio.ReadOnlyBufferException If the destination buffer is read-only.
+	 */
+	public static int v1ToV6(ByteBuffer src, ByteBuffer dst) {
+		return convert(src, dst, V1_BITS, true);
+	}
+
+	/**
+	 * Convert version 6 UUIDs from one buffer to version 1 UUIDs in another buffer.
+	 *
+	 * @param src The buffer containing the UUIDs to convert.
+	 * @param dst The buffer receiving the converted UUIDs.
+	 * @return The number of transferred UUIDs.
+	 * @throws java.nio.ReadOnlyBufferException If the destination buffer is read-only.
+	 * @see #v1ToV6(ByteBuffer, ByteBuffer)
+	 */
+	public static int v6ToV1(ByteBuffer src, ByteBuffer dst) {
+		return convert(src, dst, V6_BITS, false);
+	}
+
+	private static boolean matches(long msb, long lsb, long versionBits) {
+		return (msb & VERSION_MASK) == versionBits && UUIDBits.isRfc4122(lsb);
+	}
+
+	private static long convert(long msb, boolean toV6) {
+		return toV6 ? v1ToV6(msb) : v6ToV1(msb);
+	}
+
+	private static int convert(long[] packed, long versionBits, boolean toV6) {
+		if ((packed.length & 1) != 0) {
+			throw new IllegalArgumentException("Packed UUIDs must consist of an even number of longs.");
+		}
+		int converted = 0;
+		for (int i = 0; i < packed.length; i += 2) {
+			long msb = packed[i];
+			if (matches(msb, packed[i + 1], versionBits)) {
+				packed[i] = convert(msb, toV6);
+				converted++;
+			}
+		}
+		return converted;
+	}
+
+	private static int convert(ByteBuffer src, ByteBuffer dst, long versionBits, boolean toV6) {
+		int count = Math.min(src.remaining(), dst.remaining()) / 16;
+		int srcPos = src.position();
+		int dstPos = dst.position();
+		for (int i = 0; i < count; i++) {
+			long msb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, srcPos + 16 * i);
+			long lsb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, srcPos + 16 * i + 8);
+			if (matches(msb, lsb, versionBits)) {
+				msb = convert(msb, toV6);
+			}
+			UUIDBits.LONG_BUFFER_VIEW.set(dst, dstPos + 16 * i, msb);
+			UUIDBits.LONG_BUFFER_VIEW.set(dst, dstPos + 16 * i + 8, lsb);
+		}
+		src.position(srcPos + 16 * count);
+		dst.position(dstPos + 16 * count);
+		return count;
+	}
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Cuckoo filter for UUIDs.
+ *
+ * <p>Like a Bloom filter, the cuckoo filter answers whether a UUID has definitely not been added before.
+ * In addition, UUIDs can be removed from the filter again.
+ * The filter stores a 16 bit fingerprint of each UUID in one of two buckets with four entries each, which results in a
+ * false positive rate of about 0.012%.
+ * The hash value is taken directly from the bits of random and name based UUIDs, all other UUIDs are mixed first.</p>
+ *
+ * <p>The filter is stored in a {@link ByteBuffer} together with a small header containing its size and number of
+ * entries.
+ * This buffer can be written to a file with {@link #writeTo(WritableByteChannel)} and be used again with
+ * {@link #load(ByteBuffer)}, for example on a memory mapped file.
+ * A single filter holds up to about 500 million UUIDs.
+ * Larger sets can be split over multiple filters with a {@link ShardRouter}.</p>
+ *
+ * <p>Instances of this class are not thread safe.</p>
+ */
+public final class UUIDCuckooFilter {
+
+	private static final long MAGIC = 0x55554944434B4631L; // UUIDCKF1
+	private static final int HEADER_SIZE = 32;
+	private static final int OFFSET_BUCKETS = 8;
+	private static final int OFFSET_VICTIM_BUCKET = 12;
+	private static final int OFFSET_COUNT = 16;
+	private static final int OFFSET_VICTIM_FINGERPRINT = 24;
+	private static final int BUCKET_SIZE = 8;
+	private static final int ENTRIES_PER_BUCKET = 4;
+	private static final int MAX_BUCKETS = 1 << 27;
+	private static final double LOAD_FACTOR = 0.95;
+	private static final int MAX_KICKS = 500;
+
+	private static final long LANES_LOW = 0x0001000100010001L;
+	private static final long LANES_HIGH = 0x8000800080008000L;
+
+	private final ByteBuffer data;
+	private final int bucketMask;
+	private long kickState;
+
+	private UUIDCuckooFilter(ByteBuffer data, int bucketCount) {
+		this.data = data;
+		this.bucketMask = bucketCount - 1;
+		this.kickState = 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * Create an empty filter on the heap.
+	 *
+	 * @param capacity The number of UUIDs the filter must be able to hold.
+	 * @return The filter instance.
+	 * @throws IllegalArgumentException If the capacity is negative or exceeds the maximum size.
+	 */
+	public static UUIDCuckooFilter create(long capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity must not be negative.");
+		}
+		double minBuckets = Math.ceil(capacity / (ENTRIES_PER_BUCKET * LOAD_FACTOR));
+		if (minBuckets > MAX_BUCKETS) {
+			throw new IllegalArgumentException("The requested capacity exceeds the maximum size of a single filter.");
+		}
+		int bucketCount = 1;
+		while (bucketCount < minBuckets) {
+			bucketCount <<= 1;
+		}
+		ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + bucketCount * BUCKET_SIZE);
+		data.putLong(0, MAGIC);
+		data.putInt(OFFSET_BUCKETS, bucketCount);
+		data.putInt(OFFSET_VICTIM_BUCKET, -1);
+		return new UUIDCuckooFilter(data, bucketCount);
+	}
+
+	/**
+	 * Use the filter stored in the given buffer.
+	 *
+	 * The filter starts at the current position of the buffer.
+	 * The content of the buffer is not copied, so changes of the filter are written through to the buffer.
+	 * A read-only buffer results in a filter which fails when UUIDs are added or removed.
+	 *
+	 * @param buffer The buffer containing the filter as written by {@link #writeTo(WritableByteChannel)}.
+	 * @return The filter instance.
+	 * @throws IllegalArgumentException If the buffer does not contain a valid filter.
+	 */
+	public static UUIDCuckooFilter load(ByteBuffer buffer) {
+		ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		if (data.remaining() < HEADER_SIZE || data.getLong(0) != MAGIC) {
+			throw new IllegalArgumentException("Buffer does not contain a UUID cuckoo filter.");
+		}
+		int bucketCount = data.getInt(OFFSET_BUCKETS);
+		if (bucketCount < 1 || bucketCount > MAX_BUCKETS || Integer.bitCount(bucketCount) != 1
+			|| data.remaining() < HEADER_SIZE + bucketCount * BUCKET_SIZE) {
+			throw new IllegalArgumentException("Buffer does not contain a complete UUID cuckoo filter.");
+		}
+		data.limit(HEADER_SIZE + bucketCount * BUCKET_SIZE);
+		return new UUIDCuckooFilter(data, bucketCount);
+	}
+
+	/**
+	 * Get the size of the filter including its header.
+	 *
+	 * @return The number of octets written by {@link #writeTo(WritableByteChannel)}.
+	 */
+	public int sizeInBytes() {
+		return data.limit();
+	}
+
+	/**
+	 * Get the number of UUIDs in the filter.
+	 *
+	 * @return The number of UUIDs added and not removed again.
+	 */
+	public long size() {
+		return data.getLong(OFFSET_COUNT);
+	}
+
+	/**
+	 * Write the filter to the given channel.
+	 *
+	 * @param channel The channel to write to.
+	 * @throws IOException If writing to the channel fails.
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer src = data.duplicate();
+		src.clear();
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+
+	/**
+	 * Add the UUID to the filter.
+	 *
+	 * Adding the same UUID multiple times stores it multiple times, so that it must be removed as often.
+	 *
+	 * @param uuid The UUID to add.
+	 * @return True if the UUID has been added, false if the filter is full.
+	 */
+	public boolean add(UUID uuid) {
+		return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Add a UUID given by its halves to the filter.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return True if the UUID has been added, false if the filter is full.
+	 * @see #add(UUID)
+	 */
+	public boolean add(long msb, long lsb) {
+		if (victimBucket() >= 0) {
+			return false;
+		}
+		long hash = UUIDBits.uniformHash(msb, lsb);
+		int fp = fingerprint(hash);
+		int i1 = index(hash);
+		int i2 = altIndex(i1, fp);
+		if (!insertInto(i1, fp) && !insertInto(i2, fp)) {
+			relocate((nextKick() & 1) == 0 ? i1 : i2, fp);
+		}
+		incrementCount(1);
+		return true;
+	}
+
+	/**
+	 * Place the fingerprint into the full bucket by relocating existing fingerprints to their alternate buckets.
+	 *
+	 * If no free entry is found, the last relocated fingerprint is kept aside as victim and further insertions fail
+	 * until an entry is removed.
+	 */
+	private void relocate(int i, int fp) {
+		for (int kick = 0; kick < MAX_KICKS; kick++) {
+			int shift = 16 * (nextKick() & 3);
+			int offset = bucketOffset(i);
+			long bucket = data.getLong(offset);
+			int evicted = (int) (bucket >>> shift) & 0xFFFF;
+			data.putLong(offset, bucket & ~(0xFFFFL << shift) | (long) fp << shift);
+			fp = evicted;
+			i = altIndex(i, fp);
+			if (insertInto(i, fp)) {
+				return;
+			}
+		}
+		data.putInt(OFFSET_VICTIM_BUCKET, i);
+		data.putShort(OFFSET_VICTIM_FINGERPRINT, (short) fp);
+	}
+
+	/**
+	 * Check if the UUID might have been added to the filter.
+	 *
+	 * @param uuid The UUID to check.
+	 * @return False if the UUID is definitely not in the filter, true if it probably is.
+	 */
+	public boolean mightContain(UUID uuid) {
+		return mightContain(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Check if a UUID given by its halves might have been added to the filter.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return False if the UUID is definitely not in the filter, true if it probably is.
+	 */
+	public boolean mightContain(long msb, long lsb) {
+		long hash = UUIDBits.uniformHash(msb, lsb);
+		int fp = fingerprint(hash);
+		int i1 = index(hash);
+		int i2 = altIndex(i1, fp);
+		return findLane(data.getLong(bucketOffset(i1)), fp) >= 0
+			|| findLane(data.getLong(bucketOffset(i2)), fp) >= 0
+			|| isVictim(i1, i2, fp);
+	}
+
+	/**
+	 * Remove the UUID from the filter.
+	 *
+	 * Only UUIDs which have been added before may be removed, otherwise a different UUID with the same fingerprint may
+	 * be removed instead.
+	 *
+	 * @param uuid The UUID to remove.
+	 * @return True if a matching entry has been removed.
+	 */
+	public boolean remove(UUID uuid) {
+		return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Remove a UUID given by its halves from the filter.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return True if a matching entry has been removed.
+	 * @see #remove(UUID)
+	 */
+	public boolean remove(long msb, long lsb) {
+		long hash = UUIDBits.uniformHash(msb, lsb);
+		int fp = fingerprint(hash);
+		int i1 = index(hash);
+		int i2 = altIndex(i1, fp);
+		if (isVictim(i1, i2, fp)) {
+			data.putInt(OFFSET_VICTIM_BUCKET, -1);
+			incrementCount(-1);
+			return true;
+		}
+		if (removeFrom(i1, fp) || removeFrom(i2, fp)) {
+			incrementCount(-1);
+			// there is space now to place the victim
+			int victim = victimBucket();
+			if (victim >= 0) {
+				int victimFp = data.getShort(OFFSET_VICTIM_FINGERPRINT) & 0xFFFF;
+				data.putInt(OFFSET_VICTIM_BUCKET, -1);
+				if (!insertInto(victim, victimFp) && !insertInto(altIndex(victim, victimFp), victimFp)) {
+					relocate(victim, victimFp);
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private int victimBucket() {
+		return data.getInt(OFFSET_VICTIM_BUCKET);
+	}
+
+	private boolean isVictim(int i1, int i2, int fp) {
+		int victim = victimBucket();
+		return victim >= 0 && (victim == i1 || victim == i2)
+			&& (data.getShort(OFFSET_VICTIM_FINGERPRINT) & 0xFFFF) == fp;
+	}
+
+	private void incrementCount(int delta) {
+		data.putLong(OFFSET_COUNT, data.getLong(OFFSET_COUNT) + delta);
+	}
+
+	private boolean insertInto(int index, int fp) {
+		int offset = bucketOffset(index);
+		long bucket = data.getLong(offset);
+		int lane = findLane(bucket, 0);
+		if (lane < 0) {
+			return false;
+		}
+		data.putLong(offset, bucket | (long) fp << (16 * lane));
+		return true;
+	}
+
+	private boolean removeFrom(int index, int fp) {
+		int offset = bucketOffset(index);
+		long bucket = data.getLong(offset);
+		int lane = findLane(bucket, fp);
+		if (lane < 0) {
+			return false;
+		}
+		data.putLong(offset, bucket & ~(0xFFFFL << (16 * lane)));
+		return true;
+	}
+
+	/**
+	 * Find the lowest 16 bit lane of the bucket containing the given value.
+	 *
+	 * @return The index of the lane or -1 if no lane contains the value.
+	 */
+	private static int findLane(long bucket, int value) {
+		long x = bucket ^ (value * LANES_LOW);
+		long zeroLanes = (x - LANES_LOW) & ~x & LANES_HIGH;
+		return zeroLanes == 0 ? -1 : Long.numberOfTrailingZeros(zeroLanes) >>> 4;
+	}
+
+	private int bucketOffset(int index) {
+		return HEADER_SIZE + index * BUCKET_SIZE;
+	}
+
+	private int index(long hash) {
+		return (int) (hash >>> 32) & bucketMask;
+	}
+
+	private int altIndex(int index, int fp) {
+		return (index ^ fp * 0x5BD1E995) & bucketMask;
+	}
+
+	private static int fingerprint(long hash) {
+		// zero marks an empty entry
+		int fp = (int) hash & 0xFFFF;
+		return fp == 0 ? 1 : fp;
+	}
+
+	private int nextKick() {
+		// xorshift generator, only used to pick the entries to relocate
+		long x = kickState;
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		kickState = x;
+		return (int) x;
+	}
+
+}
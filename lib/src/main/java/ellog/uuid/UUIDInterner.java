@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache returning canonical instances for frequently repeated UUIDs.
+ *
+ * <p>Applications which read the same UUIDs over and over, can use the interner to share one instance per value
+ * instead of keeping many equal copies alive.
+ * The lookup methods taking a string or raw octets decode the UUID value without creating an object, so that a hit
+ * allocates nothing at all.</p>
+ *
+ * <p>The interner is a four-way set associative cache with a fixed number of entries.
+ * When all entries of a set are occupied, the least recently added one is evicted.
+ * Lookups are lock free and the interner can be shared between threads.
+ * Concurrent insertions of the same value may occasionally result in different instances being returned, which are
+ * still equal to each other.</p>
+ *
+ * <p>The interner counts its hits and misses, which can be used to assess whether interning pays off.</p>
+ */
+public final class UUIDInterner {
+
+	/**
+	 * Estimated heap size of one UUID instance.
+	 *
+	 * The instance consists of the UUID object, its buffer object and the backing array of 16 octets, which take 104
+	 * octets on a JVM with compressed object pointers, as measured by the allocation tests.
+	 */
+	static final int ESTIMATED_INSTANCE_SIZE = 24 + 48 + 32;
+
+	private static final int WAYS = 4;
+
+	private final AtomicReferenceArray<UUID> entries;
+	private final int setMask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Create an interner holding up to the given number of UUIDs.
+	 *
+	 * The capacity is rounded up to the next power of two.
+	 *
+	 * @param capacity The maximum number of UUIDs in the cache.
+	 * @throws IllegalArgumentException If the capacity is smaller than 4 or larger than {@code 2^30}.
+	 */
+	public UUIDInterner(int capacity) {
+		if (capacity < WAYS || capacity > 1 << 30) {
+			throw new IllegalArgumentException("The capacity must be between 4 and 2^30.");
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.entries = new AtomicReferenceArray<>(size);
+		this.setMask = size / WAYS - 1;
+	}
+
+	/**
+	 * Get the canonical instance of the given UUID.
+	 *
+	 * If no instance with the same value is cached, the given instance is added to the cache.
+	 *
+	 * @param uuid The UUID to intern.
+	 * @return The cached instance, which is equal to the given UUID.
+	 */
+	public UUID intern(UUID uuid) {
+		long msb = uuid.getMostSignificantBits();
+		long lsb = uuid.getLeastSignificantBits();
+		int slot = setSlot(msb, lsb);
+		UUID cached = lookup(slot, msb, lsb);
+		if (cached != null) {
+			return cached;
+		}
+		return insert(slot, uuid);
+	}
+
+	/**
+	 * Get the canonical instance of a UUID given by its halves.
+	 *
+	 * @param msb The most significant half of the UUID.
+	 * @param lsb The least significant half of the UUID.
+	 * @return The cached instance.
+	 */
+	public UUID intern(long msb, long lsb) {
+		int slot = setSlot(msb, lsb);
+		UUID cached = lookup(slot, msb, lsb);
+		if (cached != null) {
+			return cached;
+		}
+		return insert(slot, UUID.fromLongs(msb, lsb));
+	}
+
+	/**
+	 * Get the canonical instance of a UUID given in its standard string representation.
+	 *
+	 * @param uuid The UUID string representation.
+	 * @return The cached instance.
+	 * @throws IllegalArgumentException If the string does not satisfy the UUID hex format.
+	 * @see UUID#parseHex(String)
+	 */
+	public UUID intern(CharSequence uuid) {
+		if (!BatchHexParser.isValid(uuid)) {
+			throw new IllegalArgumentException("Provided input does not satisfy the UUID hex format.");
+		}
+		return intern(BatchHexParser.decodeMsb(uuid), BatchHexParser.decodeLsb(uuid));
+	}
+
+	/**
+	 * Get the canonical instance of a UUID given by 16 octets at the given offset of a byte array.
+	 *
+	 * @param src The array containing the octets of the UUID.
+	 * @param offset The offset of the first octet in the array.
+	 * @return The cached instance.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given offset.
+	 * @see UUID#fromBytes(byte[], int)
+	 */
+	public UUID intern(byte[] src, int offset) {
+		long msb = (long) UUIDBits.LONG_ARRAY_VIEW.get(src, offset);
+		long lsb = (long) UUIDBits.LONG_ARRAY_VIEW.get(src, offset + 8);
+		return intern(msb, lsb);
+	}
+
+	/**
+	 * Get the canonical instance of a UUID given by 16 octets at the given index of a buffer.
+	 *
+	 * @param src The buffer containing the octets of the UUID.
+	 * @param index The index of the first octet in the buffer.
+	 * @return The cached instance.
+	 * @throws IndexOutOfBoundsException If there are fewer than 16 octets at the given index.
+	 * @see UUID#fromBuffer(ByteBuffer, int)
+	 */
+	public UUID intern(ByteBuffer src, int index) {
+		long msb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, index);
+		long lsb = (long) UUIDBits.LONG_BUFFER_VIEW.get(src, index + 8);
+		return intern(msb, lsb);
+	}
+
+	/**
+	 * Get the number of lookups which returned a cached instance.
+	 *
+	 * @return The number of hits.
+	 */
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of lookups which had to add a new instance.
+	 *
+	 * @return The number of misses.
+	 */
+	public long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the ratio of lookups which returned a cached instance.
+	 *
+	 * @return The hit rate between 0 and 1, or 0 if no lookups have been performed yet.
+	 */
+	public double hitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/**
+	 * Estimate the heap memory not allocated due to cache hits.
+	 *
+	 * Each hit saves one UUID instance, which takes about 104 octets on a JVM with compressed object pointers.
+	 *
+	 * @return The estimated number of octets saved.
+	 */
+	public long estimatedBytesSaved() {
+		return hits.sum() * ESTIMATED_INSTANCE_SIZE;
+	}
+
+	private int setSlot(long msb, long lsb) {
+		return ((int) UUIDBits.hash(msb, lsb) & setMask) * WAYS;
+	}
+
+	private UUID lookup(int slot, long msb, long lsb) {
+		for (int i = slot; i < slot + WAYS; i++) {
+			UUID e = entries.get(i);
+			if (e == null) {
+				break;
+			} else if (matches(e, msb, lsb)) {
+				hits.increment();
+				return e;
+			}
+		}
+		return null;
+	}
+
+	private static boolean matches(UUID e, long msb, long lsb) {
+		return e.getMostSignificantBits() == msb && e.getLeastSignificantBits() == lsb;
+	}
+
+	private UUID insert(int slot, UUID uuid) {
+		misses.increment();
+		// the first entry holds the most recently added UUID, the others move one entry further
+		UUID previous = uuid;
+		for (int i = slot; i < slot + WAYS && previous != null; i++) {
+			previous = entries.getAndSet(i, previous);
+		}
+		return uuid;
+	}
+
+}
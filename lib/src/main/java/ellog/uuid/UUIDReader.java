@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Reader for streams of UUIDs in their standard string representation, separated by delimiters.
+ *
+ * The reader decodes the ASCII input directly from a channel or a buffer, such as a memory-mapped file, without
+ * converting it to strings.
+ * UUIDs can be read one by one as objects, or in batches into a {@code long[]} where the UUID with index {@code i} is
+ * stored at {@code 2*i} and {@code 2*i+1}.
+ *
+ * <p>By default, rows are separated by line feed and carriage return characters and blank rows are skipped.
+ * A line feed directly following a carriage return belongs to the same delimiter, so {@code \n}, {@code \r} and
+ * {@code \r\n} line endings are accepted even if blank rows are not skipped.
+ * Rows which do not satisfy the format are passed to the {@link MalformedHandler}, which by default throws a
+ * {@link MalformedUUIDException} containing the offset of the row in the stream.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public class UUIDReader implements Closeable {
+
+	/** The default size of the read buffer. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Handler for rows which do not satisfy the standard UUID string representation.
+	 */
+	public interface MalformedHandler {
+		/**
+		 * Process a malformed row.
+		 *
+		 * If the method returns normally, the row is skipped and reading continues with the next row.
+		 *
+		 * @param offset The offset of the first octet of the row in the stream.
+		 * @param length The length of the row in octets.
+		 * @throws IOException To abort reading.
+		 */
+		void malformed(long offset, int length) throws IOException;
+	}
+
+	private static final MalformedHandler THROWING_HANDLER = (offset, length) -> {
+		throw new MalformedUUIDException(offset, length);
+	};
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final boolean[] delimiters = new boolean[256];
+	private boolean skipBlankLines = true;
+	private MalformedHandler malformedHandler = THROWING_HANDLER;
+
+	/** Offset of the first octet in the buffer in the stream. */
+	private long bufferOffset;
+	/** Start of the current row in the stream, only used when a row is longer than the buffer. */
+	private long overlongRowStart = -1;
+	private boolean endOfInput;
+	/** Whether the previous row ended with a carriage return, so a following line feed is part of its delimiter. */
+	private boolean afterCarriageReturn;
+	private final long[] single = new long[2];
+
+	/**
+	 * Create a new reader for the given channel.
+	 * @param channel The channel to read from.
+	 * @param bufferSize The size of the read buffer, at least 37 octets.
+	 * @throws IllegalArgumentException If the buffer size is too small.
+	 */
+	public UUIDReader(ReadableByteChannel channel, int bufferSize) {
+		if (bufferSize <= BatchHexParser.HEX_LENGTH) {
+			throw new IllegalArgumentException("Buffer size must be larger than " + BatchHexParser.HEX_LENGTH + ".");
+		}
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.buffer.limit(0);
+		setDelimiters((byte) '\n', (byte) '\r');
+	}
+
+	/**
+	 * Create a new reader for the given channel with the default buffer size.
+	 * @param channel The channel to read from.
+	 */
+	public UUIDReader(ReadableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a new reader for the given stream with the default buffer size.
+	 * @param in The stream to read from.
+	 */
+	public UUIDReader(InputStream in) {
+		this(Channels.newChannel(in));
+	}
+
+	/**
+	 * Create a new reader for the content of the given buffer.
+	 *
+	 * The reader consumes the octets between the position and the limit of the buffer without copying them.
+	 * This is the preferred way to read memory-mapped files.
+	 * Offsets reported for malformed rows are relative to the position of the buffer.
+	 *
+	 * @param content The buffer to read from.
+	 */
+	public UUIDReader(ByteBuffer content) {
+		this.channel = null;
+		this.buffer = content.slice();
+		this.endOfInput = true;
+		setDelimiters((byte) '\n', (byte) '\r');
+	}
+
+	/**
+	 * Set the octets which separate the rows of the input.
+	 * @param delimiters The delimiter octets.
+	 * @return This reader for method chaining.
+	 */
+	public UUIDReader setDelimiters(byte... delimiters) {
+		Arrays.fill(this.delimiters, false);
+		for (byte d : delimiters) {
+			this.delimiters[d & 0xFF] = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Set whether empty rows are skipped or reported as malformed.
+	 * @param skipBlankLines True to skip empty rows.
+	 * @return This reader for method chaining.
+	 */
+	public UUIDReader setSkipBlankLines(boolean skipBlankLines) {
+		this.skipBlankLines = skipBlankLines;
+		return this;
+	}
+
+	/**
+	 * Set the handler for malformed rows.
+	 * @param malformedHandler The handler to use.
+	 * @return This reader for method chaining.
+	 */
+	public UUIDReader setMalformedHandler(MalformedHandler malformedHandler) {
+		this.malformedHandler = malformedHandler;
+		return this;
+	}
+
+	/**
+	 * Read the next UUID.
+	 * @return The next UUID, or {@code null} if the end of the input has been reached.
+	 * @throws IOException If reading fails or the malformed handler aborts.
+	 */
+	public UUID read() throws IOException {
+		if (read(single, 0, 1) < 0) {
+			return null;
+		}
+		return UUID.fromLongs(single[0], single[1]);
+	}
+
+	/**
+	 * Read up to the given number of UUIDs into the destination array.
+	 *
+	 * @param dst The array receiving the halves of the UUIDs.
+	 * @param dstIndex The index of the first UUID in the destination array.
+	 * @param maxCount The maximum number of UUIDs to read.
+	 * @return The number of UUIDs read, or -1 if the end of the input has been reached.
+	 * @throws IOException If reading fails or the malformed handler aborts.
+	 */
+	public int read(long[] dst, int dstIndex, int maxCount) throws IOException {
+		int count = 0;
+		while (count < maxCount) {
+			if (afterCarriageReturn) {
+				if (buffer.position() < buffer.limit()) {
+					afterCarriageReturn = false;
+					if (buffer.get(buffer.position()) == '\n') {
+						buffer.position(buffer.position() + 1);
+					}
+				} else if (!endOfInput) {
+					fill();
+					continue;
+				}
+			}
+			int rowStart = buffer.position();
+			int rowEnd = findDelimiter(rowStart);
+			if (rowEnd < 0) {
+				if (endOfInput) {
+					if (rowStart == buffer.limit() && overlongRowStart < 0) {
+						break;
+					}
+					// last row without trailing delimiter
+					rowEnd = buffer.limit();
+				} else {
+					fill();
+					continue;
+				}
+			}
+			afterCarriageReturn = rowEnd < buffer.limit() && buffer.get(rowEnd) == '\r' && delimiters['\n'];
+			buffer.position(Math.min(rowEnd + 1, buffer.limit()));
+			if (processRow(rowStart, rowEnd, dst, dstIndex + count)) {
+				count++;
+			}
+		}
+		return count == 0 && maxCount > 0 ? -1 : count;
+	}
+
+	private int findDelimiter(int from) {
+		int limit = buffer.limit();
+		for (int i = from; i < limit; i++) {
+			if (delimiters[buffer.get(i) & 0xFF]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean processRow(int rowStart, int rowEnd, long[] dst, int dstIndex) throws IOException {
+		int length = rowEnd - rowStart;
+		if (overlongRowStart >= 0) {
+			// the beginning of this row has already been discarded
+			long start = overlongRowStart;
+			overlongRowStart = -1;
+			malformedHandler.malformed(start, (int) Math.min(Integer.MAX_VALUE, bufferOffset + rowEnd - start));
+			return false;
+		} else if (length == 0 && skipBlankLines) {
+			return false;
+		} else if (length == BatchHexParser.HEX_LENGTH && BatchHexParser.tryParse(buffer, rowStart, dst, dstIndex)) {
+			return true;
+		} else {
+			malformedHandler.malformed(bufferOffset + rowStart, length);
+			return false;
+		}
+	}
+
+	private void fill() throws IOException {
+		if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+			// the row does not fit into the buffer, it can only be malformed, so discard what we have
+			if (overlongRowStart < 0) {
+				overlongRowStart = bufferOffset;
+			}
+			bufferOffset += buffer.limit();
+			buffer.limit(0);
+		}
+		bufferOffset += buffer.position();
+		buffer.compact();
+		int num = channel.read(buffer);
+		buffer.flip();
+		if (num < 0) {
+			endOfInput = true;
+		}
+	}
+
+	/**
+	 * Close the underlying channel.
+	 * @throws IOException If closing the channel fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Radix sort for UUIDs in packed arrays and buffers.
+ *
+ * <p>The UUIDs are sorted in the same order as {@link UUID#compareTo(UUID)}, treating the 16 octets as an unsigned
+ * number.
+ * The sequential sort is a least significant digit radix sort over the octets, which skips all octets that are the same
+ * for every UUID, such as the version and variant bits or the common timestamp prefix of time based UUIDs.
+ * The parallel sort first partitions the UUIDs by their most significant differing octet and then sorts the partitions
+ * in the common {@link ForkJoinPool}.</p>
+ *
+ * <p>Both sorts need a scratch array of the same size as the input.</p>
+ */
+public final class UUIDSort {
+
+	private static final int RADIX = 256;
+	private static final int OCTETS = 16;
+	/** Ranges smaller than this number of UUIDs are sorted with insertion sort. */
+	private static final int INSERTION_THRESHOLD = 32;
+	/** Ranges smaller than this number of UUIDs are not split into parallel tasks. */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private UUIDSort() {
+	}
+
+	/**
+	 * Sort the UUIDs in the packed array.
+	 *
+	 * The array contains the most significant half of UUID {@code i} at index {@code 2*i} and the least significant
+	 * half at index {@code 2*i+1}.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @throws IllegalArgumentException If the length of the array is odd.
+	 */
+	public static void sort(long[] packed) {
+		checkPacked(packed);
+		sortRange(packed, new long[packed.length], 0, packed.length >>> 1, 0, packed);
+	}
+
+	/**
+	 * Sort the UUIDs in the packed array in parallel.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @throws IllegalArgumentException If the length of the array is odd.
+	 * @see #sort(long[])
+	 */
+	public static void parallelSort(long[] packed) {
+		checkPacked(packed);
+		int count = packed.length >>> 1;
+		if (count < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+			sortRange(packed, new long[packed.length], 0, count, 0, packed);
+		} else {
+			ForkJoinPool.commonPool().invoke(new ParallelSort(packed, new long[packed.length], 0, count, 0, packed));
+		}
+	}
+
+	/**
+	 * Sort the UUIDs in the buffer.
+	 *
+	 * The UUIDs are stored as 16 octets each in network byte order, starting at the current position of the buffer.
+	 * All complete UUIDs before the limit are sorted, the position and limit of the buffer are not changed.
+	 *
+	 * @param buffer The buffer containing the octets of the UUIDs.
+	 * @throws java.nio.ReadOnlyBufferException If the buffer is read-only.
+	 */
+	public static void sort(ByteBuffer buffer) {
+		long[] packed = load(buffer);
+		sort(packed);
+		store(packed, buffer);
+	}
+
+	/**
+	 * Sort the UUIDs in the buffer in parallel.
+	 *
+	 * @param buffer The buffer containing the octets of the UUIDs.
+	 * @throws java.nio.ReadOnlyBufferException If the buffer is read-only.
+	 * @see #sort(ByteBuffer)
+	 */
+	public static void parallelSort(ByteBuffer buffer) {
+		long[] packed = load(buffer);
+		parallelSort(packed);
+		store(packed, buffer);
+	}
+
+	private static void checkPacked(long[] packed) {
+		if ((packed.length & 1) != 0) {
+			throw new IllegalArgumentException("Packed UUIDs must consist of an even number of longs.");
+		}
+	}
+
+	private static long[] load(ByteBuffer buffer) {
+		if (buffer.isReadOnly()) {
+			throw new java.nio.ReadOnlyBufferException();
+		}
+		int base = buffer.position();
+		long[] packed = new long[buffer.remaining() / OCTETS * 2];
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = (long) UUIDBits.LONG_BUFFER_VIEW.get(buffer, base + 8 * i);
+		}
+		return packed;
+	}
+
+	private static void store(long[] packed, ByteBuffer buffer) {
+		int base = buffer.position();
+		for (int i = 0; i < packed.length; i++) {
+			UUIDBits.LONG_BUFFER_VIEW.set(buffer, base + 8 * i, packed[i]);
+		}
+	}
+
+	/**
+	 * Get an octet of a packed UUID.
+	 *
+	 * @param src The packed UUIDs.
+	 * @param slot The slot of the UUID.
+	 * @param octet The index of the octet, 0 being the most significant one.
+	 * @return The unsigned octet value.
+	 */
+	private static int octet(long[] src, int slot, int octet) {
+		long half = src[2 * slot + (octet >>> 3)];
+		return (int) (half >>> (56 - 8 * (octet & 7))) & 0xFF;
+	}
+
+	/**
+	 * Count the values of all octets starting at {@code firstOctet} in the given range.
+	 *
+	 * @return The counts, the count of value {@code v} of octet {@code o} is at index {@code o * RADIX + v}.
+	 */
+	private static int[] histogram(long[] src, int from, int to, int firstOctet) {
+		int[] counts = new int[OCTETS * RADIX];
+		if (firstOctet < 8) {
+			for (int i = from; i < to; i++) {
+				long msb = src[2 * i];
+				long lsb = src[2 * i + 1];
+				for (int o = firstOctet; o < 8; o++) {
+					counts[o * RADIX + ((int) (msb >>> (56 - 8 * o)) & 0xFF)]++;
+				}
+				for (int o = 8; o < OCTETS; o++) {
+					counts[o * RADIX + ((int) (lsb >>> (120 - 8 * o)) & 0xFF)]++;
+				}
+			}
+		} else {
+			for (int i = from; i < to; i++) {
+				long lsb = src[2 * i + 1];
+				for (int o = firstOctet; o < OCTETS; o++) {
+					counts[o * RADIX + ((int) (lsb >>> (120 - 8 * o)) & 0xFF)]++;
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Check if all UUIDs of the range share the same value in the given octet.
+	 */
+	private static boolean isConstant(int[] counts, int octet, int firstValue, int count) {
+		return counts[octet * RADIX + firstValue] == count;
+	}
+
+	/**
+	 * Distribute the UUIDs of the range into {@code dst} according to the value of one octet.
+	 *
+	 * @return The start offsets of the buckets, the end of the last bucket is at index {@code RADIX}.
+	 */
+	private static int[] scatter(long[] src, long[] dst, int from, int to, int octet, int[] counts) {
+		int[] offsets = new int[RADIX + 1];
+		int pos = from;
+		for (int v = 0; v < RADIX; v++) {
+			offsets[v] = pos;
+			pos += counts[octet * RADIX + v];
+		}
+		offsets[RADIX] = pos;
+
+		int[] next = offsets.clone();
+		int half = octet >>> 3;
+		int shift = 56 - 8 * (octet & 7);
+		for (int i = from; i < to; i++) {
+			long msb = src[2 * i];
+			long lsb = src[2 * i + 1];
+			int v = (int) ((half == 0 ? msb : lsb) >>> shift) & 0xFF;
+			int p = next[v]++;
+			dst[2 * p] = msb;
+			dst[2 * p + 1] = lsb;
+		}
+		return offsets;
+	}
+
+	/**
+	 * Sort a range of UUIDs which are equal in all octets before {@code firstOctet}.
+	 *
+	 * @param src The array containing the UUIDs.
+	 * @param other The other array with the same size as {@code src}, used as scratch space.
+	 * @param from The first slot of the range.
+	 * @param to The slot after the end of the range.
+	 * @param firstOctet The first octet which may differ between the UUIDs of the range.
+	 * @param target Either {@code src} or {@code other}, the array receiving the sorted range.
+	 */
+	private static void sortRange(long[] src, long[] other, int from, int to, int firstOctet, long[] target) {
+		int count = to - from;
+		if (count < INSERTION_THRESHOLD) {
+			if (src != target) {
+				System.arraycopy(src, 2 * from, target, 2 * from, 2 * count);
+			}
+			insertionSort(target, from, to);
+			return;
+		}
+
+		int[] counts = histogram(src, from, to, firstOctet);
+		long[] dst = src == target ? other : target;
+		for (int o = OCTETS - 1; o >= firstOctet; o--) {
+			if (!isConstant(counts, o, octet(src, from, o), count)) {
+				scatter(src, dst, from, to, o, counts);
+				long[] tmp = src;
+				src = dst;
+				dst = tmp;
+			}
+		}
+		if (src != target) {
+			System.arraycopy(src, 2 * from, target, 2 * from, 2 * count);
+		}
+	}
+
+	private static void insertionSort(long[] a, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			long msb = a[2 * i];
+			long lsb = a[2 * i + 1];
+			int j = i - 1;
+			while (j >= from && UUIDBits.compare(a[2 * j], a[2 * j + 1], msb, lsb) > 0) {
+				a[2 * j + 2] = a[2 * j];
+				a[2 * j + 3] = a[2 * j + 1];
+				j--;
+			}
+			a[2 * j + 2] = msb;
+			a[2 * j + 3] = lsb;
+		}
+	}
+
+	/**
+	 * Most significant digit partitioning step of the parallel sort.
+	 *
+	 * The range is split into buckets by its most significant differing octet, the buckets are then sorted in
+	 * independent tasks.
+	 */
+	private static final class ParallelSort extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] src;
+		private final long[] other;
+		private final int from;
+		private final int to;
+		private final int firstOctet;
+		private final long[] target;
+
+		ParallelSort(long[] src, long[] other, int from, int to, int firstOctet, long[] target) {
+			this.src = src;
+			this.other = other;
+			this.from = from;
+			this.to = to;
+			this.firstOctet = firstOctet;
+			this.target = target;
+		}
+
+		@Override
+		protected void compute() {
+			int count = to - from;
+			if (count < PARALLEL_THRESHOLD) {
+				sortRange(src, other, from, to, firstOctet, target);
+				return;
+			}
+
+			int[] counts = histogram(src, from, to, firstOctet);
+			int octet = firstOctet;
+			while (octet < OCTETS && isConstant(counts, octet, octet(src, from, octet), count)) {
+				octet++;
+			}
+			if (octet == OCTETS) {
+				// all UUIDs are equal
+				if (src != target) {
+					System.arraycopy(src, 2 * from, target, 2 * from, 2 * count);
+				}
+				return;
+			}
+
+			int[] offsets = scatter(src, other, from, to, octet, counts);
+			List<ParallelSort> tasks = new ArrayList<>();
+			for (int v = 0; v < RADIX; v++) {
+				if (offsets[v] < offsets[v + 1]) {
+					tasks.add(new ParallelSort(other, src, offsets[v], offsets[v + 1], octet + 1, target));
+				}
+			}
+			invokeAll(tasks);
+		}
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * A time window for time-based UUIDs of version 1, 6 or 7.
+ *
+ * The range provides the smallest and the largest UUID of the given version whose timestamp lies inside the window.
+ * For the ordered versions 6 and 7, these bounds can be used for range scans over a sorted index such as the primary key
+ * index of a database table:
+ * <pre>
+ *   UUIDTimeRange range = UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED, from, to);
+ *   ... WHERE id BETWEEN range.lowerBound() AND range.upperBound()
+ * </pre>
+ * Version 1 UUIDs are not ordered by time, so the bounds only describe the smallest and largest timestamp.
+ *
+ * <p>The range can also be used as a predicate.
+ * The test compares the raw timestamp bits of the UUID with the window without converting them to an {@link Instant}.</p>
+ *
+ * <p>Both ends of the window are inclusive and are truncated to the precision of the version, which is milliseconds for
+ * version 7 and 100 nanoseconds for version 1 and 6.
+ * Instants outside the range representable by the version are clamped to the smallest or largest timestamp.</p>
+ */
+public final class UUIDTimeRange implements Predicate<UUID> {
+
+	private final StandardVersion version;
+	private final long minTimestamp;
+	private final long maxTimestamp;
+
+	private UUIDTimeRange(StandardVersion version, long minTimestamp, long maxTimestamp) {
+		this.version = version;
+		this.minTimestamp = minTimestamp;
+		this.maxTimestamp = maxTimestamp;
+	}
+
+	/**
+	 * Create a new time range for the given version.
+	 *
+	 * @param version The version of the UUIDs. Must be one of the time-based versions 1, 6 or 7.
+	 * @param from The start of the window (inclusive).
+	 * @param to The end of the window (inclusive).
+	 * @return The time range.
+	 * @throws IllegalArgumentException If the version is not time-based or the start is after the end.
+	 */
+	public static UUIDTimeRange of(StandardVersion version, Instant from, Instant to) {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("Start of the time range is after its end.");
+		}
+		switch (version) {
+			case TIME_BASED:
+			case TIME_BASED_ORDERED_LEGACY:
+				return new UUIDTimeRange(version, UUIDBits.gregorianTimestamp(from), UUIDBits.gregorianTimestamp(to));
+			case TIME_BASED_ORDERED:
+				return new UUIDTimeRange(version, UUIDBits.unixMillis(from), UUIDBits.unixMillis(to));
+			default:
+				throw new IllegalArgumentException("UUIDs of version " + version.value + " do not contain a timestamp.");
+		}
+	}
+
+	/**
+	 * Get the version of the UUIDs described by this range.
+	 * @return The version.
+	 */
+	public StandardVersion version() {
+		return version;
+	}
+
+	/**
+	 * Get the smallest UUID with a timestamp inside this range.
+	 *
+	 * All bits except timestamp, version and variant are zero.
+	 *
+	 * @return The lower bound.
+	 */
+	public StandardUUID lowerBound() {
+		return buildBound(minTimestamp, 0, 0, 0);
+	}
+
+	/**
+	 * Get the largest UUID with a timestamp inside this range.
+	 *
+	 * All bits except timestamp, version and variant are one.
+	 *
+	 * @return The upper bound.
+	 */
+	public StandardUUID upperBound() {
+		return buildBound(maxTimestamp, 0x0FFF, 0x3FFF, -1L);
+	}
+
+	private StandardUUID buildBound(long ts, int randA, int clockSequence, long node) {
+		StandardUUIDBuilder builder = new StandardUUIDBuilder()
+			.setVersion(version)
+			.setClockSequence(clockSequence)
+			.setNode(node);
+		switch (version) {
+			case TIME_BASED:
+				builder.setTimestampLow((int) ts)
+					.setTimestampMid((short) (ts >>> 32))
+					.setTimestampHigh((short) (ts >>> 48));
+				break;
+			case TIME_BASED_ORDERED_LEGACY:
+				builder.setTimestamp(ts);
+				break;
+			default:
+				builder.setTimestampLow((int) (ts >>> 16))
+					.setTimestampMid((short) ts)
+					.setTimestampHigh((short) randA);
+				break;
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Check if the given UUID has the version of this range and a timestamp inside of it.
+	 *
+	 * @param uuid The UUID to check.
+	 * @return True if the UUID lies within the range, false otherwise.
+	 */
+	@Override
+	public boolean test(UUID uuid) {
+		return test(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Check if the given UUID has the version of this range and a timestamp inside of it.
+	 *
+	 * @param msb The most significant 64 bits of the UUID.
+	 * @param lsb The least significant 64 bits of the UUID.
+	 * @return True if the UUID lies within the range, false otherwise.
+	 */
+	public boolean test(long msb, long lsb) {
+		if (UUIDBits.version(msb) != version.value || !UUIDBits.isRfc4122(lsb)) {
+			return false;
+		}
+		long ts;
+		switch (version) {
+			case TIME_BASED:
+				ts = UUIDBits.v1Timestamp(msb);
+				break;
+			case TIME_BASED_ORDERED_LEGACY:
+				ts = UUIDBits.v6Timestamp(msb);
+				break;
+			default:
+				ts = UUIDBits.v7Millis(msb);
+				break;
+		}
+		return ts >= minTimestamp && ts <= maxTimestamp;
+	}
+
+}
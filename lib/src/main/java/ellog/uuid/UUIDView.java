@@ -0,0 +1,303 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable, mutable view on UUIDs stored in a buffer or a packed array.
+ *
+ * The view is positioned on a 16 octet slot of the underlying storage with {@link #moveTo(int)}.
+ * It provides the same read accessors as {@link StandardUUID} without creating an object for each UUID, so large
+ * amounts of packed UUIDs can be scanned, filtered or compared without producing garbage.
+ * The two halves of the UUID are read from the storage when the view is positioned, later modifications of the storage
+ * are not visible until the view is positioned again.
+ *
+ * <p>Two storage layouts are supported:</p>
+ * <ul>
+ *   <li>a {@link ByteBuffer} containing the octets of consecutive UUIDs, starting at the position of the buffer, and</li>
+ *   <li>a {@code long[]} containing the most and least significant halves of consecutive UUIDs in alternating order.</li>
+ * </ul>
+ *
+ * <p>Use {@link #materialize()} to obtain an immutable UUID object for the current slot.</p>
+ *
+ * <p>Like {@link ByteBuffer}, equality and the hash code of a view depend on its current content, which changes when the
+ * view is positioned on another slot.
+ * Views should therefore not be used as keys in maps or elements of sets.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public final class UUIDView implements Comparable<UUIDView> {
+
+	private final ByteBuffer buffer;
+	private final int bufferOffset;
+	private final long[] packed;
+	private final int slotCount;
+
+	private int slot = -1;
+	private long msb;
+	private long lsb;
+
+	private UUIDView(ByteBuffer buffer, long[] packed) {
+		this.buffer = buffer;
+		this.packed = packed;
+		if (buffer != null) {
+			this.bufferOffset = buffer.position();
+			this.slotCount = buffer.remaining() / 16;
+		} else {
+			this.bufferOffset = 0;
+			this.slotCount = packed.length / 2;
+		}
+	}
+
+	/**
+	 * Create a view on the UUIDs in the given buffer.
+	 *
+	 * The first slot starts at the current position of the buffer and the last slot ends before its limit.
+	 * The octets are read in network byte order, regardless of the byte order configured for the buffer.
+	 *
+	 * @param buffer The buffer containing the octets of the UUIDs.
+	 * @return The view, which is not positioned on a slot yet.
+	 */
+	public static UUIDView over(ByteBuffer buffer) {
+		return new UUIDView(buffer, null);
+	}
+
+	/**
+	 * Create a view on the UUIDs in the given packed array.
+	 *
+	 * The array contains the most significant half of the UUID in slot {@code i} at index {@code 2*i} and the least
+	 * significant half at index {@code 2*i+1}.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @return The view, which is not positioned on a slot yet.
+	 */
+	public static UUIDView over(long[] packed) {
+		return new UUIDView(null, packed);
+	}
+
+	/**
+	 * Position the view on the given slot.
+	 *
+	 * @param slot The index of the UUID in the storage.
+	 * @return This view for method chaining.
+	 * @throws IndexOutOfBoundsException If the slot does not exist.
+	 */
+	public UUIDView moveTo(int slot) {
+		if (slot < 0 || slot >= slotCount) {
+			throw new IndexOutOfBoundsException("Slot " + slot + " is outside of the " + slotCount + " available slots.");
+		}
+		if (packed != null) {
+			msb = packed[2 * slot];
+			lsb = packed[2 * slot + 1];
+		} else {
+			int index = bufferOffset + 16 * slot;
+			msb = (long) UUIDBits.LONG_BUFFER_VIEW.get(buffer, index);
+			lsb = (long) UUIDBits.LONG_BUFFER_VIEW.get(buffer, index + 8);
+		}
+		this.slot = slot;
+		return this;
+	}
+
+	/**
+	 * Get the slot the view is positioned on.
+	 * @return The slot index, or -1 if the view has not been positioned yet.
+	 */
+	public int slot() {
+		return slot;
+	}
+
+	/**
+	 * Get the number of UUID slots in the storage.
+	 * @return The number of slots.
+	 */
+	public int slotCount() {
+		return slotCount;
+	}
+
+	/**
+	 * Get the most significant 64 bits of the current UUID.
+	 * @return The most significant 64 bits.
+	 * @see UUID#getMostSignificantBits()
+	 */
+	public long getMostSignificantBits() {
+		return msb;
+	}
+
+	/**
+	 * Get the least significant 64 bits of the current UUID.
+	 * @return The least significant 64 bits.
+	 * @see UUID#getLeastSignificantBits()
+	 */
+	public long getLeastSignificantBits() {
+		return lsb;
+	}
+
+	/**
+	 * Get the variant value of the current UUID.
+	 * @return The variant value.
+	 * @see UUID#variantRaw()
+	 */
+	public byte variantRaw() {
+		return Variant.numFromVariantOctet((int) (lsb >>> 56));
+	}
+
+	/**
+	 * Get the variant of the current UUID.
+	 * @return The variant.
+	 * @see UUID#variant()
+	 */
+	public Variant variant() {
+		return Variant.fromVariantOctet((int) (lsb >>> 56));
+	}
+
+	/**
+	 * Return the version nibble of the current UUID.
+	 * @return The version nibble.
+	 * @see StandardUUID#versionRaw()
+	 */
+	public byte versionRaw() {
+		return (byte) UUIDBits.version(msb);
+	}
+
+	/**
+	 * Return the version of the current UUID as enum.
+	 * @return The version.
+	 * @throws IllegalArgumentException if the version nibble is not a known version number.
+	 * @see StandardUUID#version()
+	 */
+	public StandardVersion version() {
+		return StandardVersion.fromInt(versionRaw());
+	}
+
+	/**
+	 * Return the combined timestamp fields of the current UUID as a number.
+	 * @return The timestamp value.
+	 * @see StandardUUID#timestamp()
+	 */
+	public long timestamp() {
+		return UUIDBits.timestamp(msb);
+	}
+
+	/**
+	 * Return the timestamp of the current UUID as milliseconds since the unix epoch.
+	 * @return The milliseconds, or {@link StandardUUID#NO_TIMESTAMP} if the UUID is not an RFC 4122 UUID of version 1,
+	 *     6 or 7.
+	 * @see StandardUUID#epochMillis()
+	 */
+	public long epochMillis() {
+		return UUIDBits.epochMillis(msb, lsb);
+	}
+
+	/**
+	 * Return the combined clock sequence fields of the current UUID as a number.
+	 * @return The clock sequence value.
+	 * @see StandardUUID#clockSequence()
+	 */
+	public short clockSequence() {
+		return UUIDBits.clockSequence(lsb);
+	}
+
+	/**
+	 * Return the node field of the current UUID as a number.
+	 * @return The node value.
+	 * @see StandardUUID#node()
+	 */
+	public long node() {
+		return UUIDBits.node(lsb);
+	}
+
+	/**
+	 * Compare the current UUID with the current UUID of another view.
+	 *
+	 * The order is the same as defined by {@link UUID#compareTo(UUID)}.
+	 *
+	 * @param o The other view.
+	 * @return A negative number, zero or a positive number as this UUID is less than, equal to or greater than the other.
+	 */
+	@Override
+	public int compareTo(UUIDView o) {
+		return UUIDBits.compare(msb, lsb, o.msb, o.lsb);
+	}
+
+	/**
+	 * Compare the current UUID with the given UUID.
+	 *
+	 * The order is the same as defined by {@link UUID#compareTo(UUID)}.
+	 *
+	 * @param o The UUID to compare with.
+	 * @return A negative number, zero or a positive number as this UUID is less than, equal to or greater than the other.
+	 */
+	public int compareTo(UUID o) {
+		return UUIDBits.compare(msb, lsb, o.getMostSignificantBits(), o.getLeastSignificantBits());
+	}
+
+	/**
+	 * Check if the other object is a view positioned on an equal UUID.
+	 *
+	 * This is consistent with {@link #compareTo(UUIDView)}.
+	 * Views are never equal to {@link UUID} objects, use {@link #compareTo(UUID)} to compare them.
+	 *
+	 * @param o The object to compare with.
+	 * @return True if the other object is a view with the same current UUID.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof UUIDView)) {
+			return false;
+		}
+		UUIDView other = (UUIDView) o;
+		return msb == other.msb && lsb == other.lsb;
+	}
+
+	/**
+	 * Compute the hash code of the current UUID.
+	 *
+	 * The hash code is the same as the one of the materialized UUID.
+	 *
+	 * @return The hash code.
+	 */
+	@Override
+	public int hashCode() {
+		long bits = msb ^ lsb;
+		return (int) (bits >> 32) ^ (int) bits;
+	}
+
+	/**
+	 * Create an immutable UUID object of the current UUID.
+	 * @return The UUID object matching the variant of the current UUID.
+	 */
+	public UUID materialize() {
+		return UUID.fromLongs(msb, lsb);
+	}
+
+	/**
+	 * Prints the standard representation of the current UUID.
+	 * @return The standard representation.
+	 * @see UUID#toString()
+	 */
+	@Override
+	public String toString() {
+		return materialize().toString();
+	}
+
+}
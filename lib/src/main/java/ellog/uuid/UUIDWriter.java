@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer for streams of UUIDs in their standard string representation, separated by a separator.
+ *
+ * The writer renders the ASCII representation of the UUIDs directly into a buffer with {@link BatchHexFormatter} and
+ * writes the buffer to a channel or stream when it is full, so no strings or character arrays are created.
+ * Each UUID is followed by the separator, which is a line feed by default.
+ * Optionally the UUIDs are written in their URN representation ({@code urn:uuid:...}).
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ *
+ * @see UUIDReader
+ */
+public class UUIDWriter implements Closeable, Flushable {
+
+	/** The default size of the write buffer. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] URN_PREFIX = "urn:uuid:".getBytes(StandardCharsets.US_ASCII);
+
+	private final WritableByteChannel channel;
+	private final OutputStream out;
+	private final ByteBuffer buffer;
+	private byte[] prefix = new byte[0];
+	private byte[] separator = { '\n' };
+
+	/**
+	 * Create a new writer for the given channel.
+	 * @param channel The channel to write to.
+	 * @param bufferSize The size of the write buffer.
+	 * @throws IllegalArgumentException If a UUID with the default separator does not fit into the buffer.
+	 */
+	public UUIDWriter(WritableByteChannel channel, int bufferSize) {
+		this(channel, null, bufferSize);
+	}
+
+	private UUIDWriter(WritableByteChannel channel, OutputStream out, int bufferSize) {
+		if (bufferSize < BatchHexParser.HEX_LENGTH + separator.length) {
+			throw new IllegalArgumentException("UUID with separator does not fit into the buffer.");
+		}
+		this.channel = channel;
+		this.out = out;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+	}
+
+	/**
+	 * Create a new writer for the given channel with the default buffer size.
+	 * @param channel The channel to write to.
+	 */
+	public UUIDWriter(WritableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a new writer for the given stream with the default buffer size.
+	 * @param out The stream to write to.
+	 */
+	public UUIDWriter(OutputStream out) {
+		this(Channels.newChannel(out), out, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Set the octets written after each UUID.
+	 * @param separator The separator octets, may be empty.
+	 * @return This writer for method chaining.
+	 * @throws IllegalArgumentException If a UUID with prefix and separator does not fit into the buffer.
+	 */
+	public UUIDWriter setSeparator(byte... separator) {
+		checkRowLength(prefix.length, separator.length);
+		this.separator = separator.clone();
+		return this;
+	}
+
+	/**
+	 * Set whether the UUIDs are written in their URN representation.
+	 * @param urn True to prefix each UUID with {@code urn:uuid:}.
+	 * @return This writer for method chaining.
+	 * @throws IllegalArgumentException If a UUID with prefix and separator does not fit into the buffer.
+	 */
+	public UUIDWriter setUrn(boolean urn) {
+		byte[] newPrefix = urn ? URN_PREFIX : new byte[0];
+		checkRowLength(newPrefix.length, separator.length);
+		this.prefix = newPrefix;
+		return this;
+	}
+
+	private void checkRowLength(int prefixLength, int separatorLength) {
+		if (prefixLength + BatchHexParser.HEX_LENGTH + separatorLength > buffer.capacity()) {
+			throw new IllegalArgumentException("UUID with prefix and separator does not fit into the buffer.");
+		}
+	}
+
+	/**
+	 * Write a UUID.
+	 * @param uuid The UUID to write.
+	 * @throws IOException If writing to the channel fails.
+	 */
+	public void write(UUID uuid) throws IOException {
+		write(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Write a UUID given by its two halves.
+	 * @param msb The most significant 64 bits of the UUID.
+	 * @param lsb The least significant 64 bits of the UUID.
+	 * @throws IOException If writing to the channel fails.
+	 */
+	public void write(long msb, long lsb) throws IOException {
+		int rowLength = prefix.length + BatchHexParser.HEX_LENGTH + separator.length;
+		if (buffer.remaining() < rowLength) {
+			drain();
+		}
+		buffer.put(prefix);
+		int pos = buffer.position();
+		BatchHexFormatter.format(msb, lsb, buffer, pos);
+		buffer.position(pos + BatchHexParser.HEX_LENGTH);
+		buffer.put(separator);
+	}
+
+	/**
+	 * Write a batch of UUIDs from a packed array.
+	 *
+	 * The array contains the most significant half of the UUID with index {@code i} at {@code 2*i} and the least
+	 * significant half at {@code 2*i+1}.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @param index The index of the first UUID to write.
+	 * @param count The number of UUIDs to write.
+	 * @throws IOException If writing to the channel fails.
+	 */
+	public void write(long[] packed, int index, int count) throws IOException {
+		for (int i = index; i < index + count; i++) {
+			write(packed[2 * i], packed[2 * i + 1]);
+		}
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Write all buffered UUIDs to the channel.
+	 *
+	 * If the writer has been created for an output stream, the stream is flushed as well.
+	 *
+	 * @throws IOException If writing to the channel or flushing the stream fails.
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+		if (out != null) {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Flush the buffered UUIDs and close the underlying channel.
+	 * @throws IOException If writing to or closing the channel fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+}
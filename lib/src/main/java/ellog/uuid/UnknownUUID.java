@@ -41,4 +41,24 @@ public class UnknownUUID extends UUID implements Serializable {
 		super(octets);
 	}
 
+	/**
+	 * Create a new UUID from the two halves of its octets.
+	 *
+	 * This constructor can be used for every variant as there is no further processing of the internal structure beyond reading the variant field.
+	 *
+	 * @param msb The octets 0 to 7 of the UUID in big-endian order.
+	 * @param lsb The octets 8 to 15 of the UUID in big-endian order.
+	 */
+	protected UnknownUUID(long msb, long lsb) {
+		super(msb, lsb);
+	}
+
+	/**
+	 * Create a new UUID whose octets are decoded on first access.
+	 *
+	 * @see UUID#decodeDataBuf()
+	 */
+	UnknownUUID() {
+	}
+
 }
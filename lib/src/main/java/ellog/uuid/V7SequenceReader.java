@@ -0,0 +1,307 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static ellog.uuid.V7SequenceWriter.BLOCK_HEADER_SIZE;
+import static ellog.uuid.V7SequenceWriter.FLAG_V7;
+import static ellog.uuid.V7SequenceWriter.INDEX_ENTRY_SIZE;
+import static ellog.uuid.V7SequenceWriter.MAGIC;
+import static ellog.uuid.V7SequenceWriter.TRAILER_SIZE;
+
+/**
+ * Reader for sorted sequences of UUIDs written by {@link V7SequenceWriter}.
+ *
+ * The reader operates on a buffer containing the complete file, such as a memory-mapped file, and decodes one block
+ * at a time.
+ * UUIDs can be read one by one as objects, or in batches into a {@code long[]} where the UUID with index {@code i} is
+ * stored at {@code 2*i} and {@code 2*i+1}.
+ * With the block index, the reader can be positioned at any ordinal, UUID or timestamp by decoding only a single
+ * block.
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ *
+ * @see V7SequenceWriter
+ */
+public class V7SequenceReader {
+
+	private final ByteBuffer data;
+	private final long size;
+	private final int blockCount;
+	private final int blockSize;
+	private final int indexOffset;
+
+	private final long[] decoded;
+	private int decodedBlock = -1;
+	private int decodedCount;
+	private long position;
+
+	/**
+	 * Create a new reader for the given file content.
+	 * @param file The buffer containing the file from its position to its limit.
+	 * @throws IllegalArgumentException If the buffer does not contain a complete sequence file.
+	 */
+	public V7SequenceReader(ByteBuffer file) {
+		this.data = file.slice().order(ByteOrder.BIG_ENDIAN);
+		int length = data.remaining();
+		if (length < 8 + TRAILER_SIZE || data.getLong(0) != MAGIC || data.getLong(length - 8) != MAGIC) {
+			throw new IllegalArgumentException("Buffer does not contain a UUID sequence file.");
+		}
+		int trailer = length - TRAILER_SIZE;
+		long indexOffset = data.getLong(trailer);
+		this.size = data.getLong(trailer + 8);
+		this.blockCount = data.getInt(trailer + 16);
+		this.blockSize = data.getInt(trailer + 20);
+		if (blockSize < 1 || blockSize > 1 << 20 || blockCount < 0
+				|| indexOffset < 8 || indexOffset + (long) blockCount * INDEX_ENTRY_SIZE != trailer
+				|| size > (long) blockCount * blockSize || size <= (long) (blockCount - 1) * blockSize) {
+			throw new IllegalArgumentException("Buffer does not contain a complete UUID sequence file.");
+		}
+		this.indexOffset = (int) indexOffset;
+		this.decoded = new long[2 * blockSize];
+	}
+
+	/**
+	 * Get the number of UUIDs in the sequence.
+	 * @return The number of UUIDs.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of blocks in the sequence.
+	 * @return The number of blocks.
+	 */
+	public int blockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Get the ordinal of the UUID returned by the next read.
+	 * @return The position in the sequence, equal to {@link #size()} at the end of the sequence.
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Position the reader at the given ordinal.
+	 * @param ordinal The ordinal of the next UUID to read.
+	 * @throws IllegalArgumentException If the ordinal is negative or larger than the size of the sequence.
+	 */
+	public void seek(long ordinal) {
+		if (ordinal < 0 || ordinal > size) {
+			throw new IllegalArgumentException("Ordinal is outside of the sequence.");
+		}
+		position = ordinal;
+	}
+
+	/**
+	 * Position the reader at the first UUID which is greater than or equal to the given UUID.
+	 * @param uuid The UUID to look for.
+	 * @return The new position, equal to {@link #size()} if all UUIDs are smaller than the given UUID.
+	 */
+	public long seekTo(UUID uuid) {
+		return seekTo(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Position the reader at the first UUID which is greater than or equal to the given UUID.
+	 * @param msb The most significant 64 bits of the UUID to look for.
+	 * @param lsb The least significant 64 bits of the UUID to look for.
+	 * @return The new position, equal to {@link #size()} if all UUIDs are smaller than the given UUID.
+	 */
+	public long seekTo(long msb, long lsb) {
+		// find the last block starting below the UUID, the UUID is either in this block or the first of the next one
+		int lo = 0;
+		int hi = blockCount - 1;
+		int block = -1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int entry = indexOffset + mid * INDEX_ENTRY_SIZE;
+			if (UUIDBits.compare(data.getLong(entry), data.getLong(entry + 8), msb, lsb) < 0) {
+				block = mid;
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		if (block < 0) {
+			position = 0;
+			return position;
+		}
+		decode(block);
+		int i = 1;
+		while (i < decodedCount && UUIDBits.compare(decoded[2 * i], decoded[2 * i + 1], msb, lsb) < 0) {
+			i++;
+		}
+		position = (long) block * blockSize + i;
+		return position;
+	}
+
+	/**
+	 * Position the reader at the first UUID with a timestamp at or after the given time.
+	 *
+	 * The timestamp is compared to the 48 most significant bits of the UUIDs, which contain the timestamp of version 7
+	 * UUIDs.
+	 *
+	 * @param millis The time in milliseconds since the unix epoch.
+	 * @return The new position, equal to {@link #size()} if all UUIDs are older than the given time.
+	 */
+	public long seekToEpochMillis(long millis) {
+		if (millis > UUIDBits.MAX_TIMESTAMP_MILLIS) {
+			position = size;
+			return position;
+		}
+		return seekTo(Math.max(0, millis) << 16, 0);
+	}
+
+	/**
+	 * Read the next UUID.
+	 * @return The UUID, or {@code null} if the end of the sequence has been reached.
+	 */
+	public UUID read() {
+		if (position >= size) {
+			return null;
+		}
+		int i = prepare();
+		position++;
+		return UUID.fromLongs(decoded[2 * i], decoded[2 * i + 1]);
+	}
+
+	/**
+	 * Read a batch of UUIDs into a packed array.
+	 *
+	 * The UUID with index {@code i} is stored with its most significant half at {@code 2*i} and its least
+	 * significant half at {@code 2*i+1}.
+	 *
+	 * @param dst The array receiving the halves of the UUIDs.
+	 * @param dstIndex The index of the first UUID in the array.
+	 * @param maxCount The maximum number of UUIDs to read.
+	 * @return The number of UUIDs read, or -1 if the end of the sequence has been reached.
+	 */
+	public int read(long[] dst, int dstIndex, int maxCount) {
+		if (position >= size) {
+			return -1;
+		}
+		int count = 0;
+		while (count < maxCount && position < size) {
+			int i = prepare();
+			int n = Math.min(maxCount - count, decodedCount - i);
+			System.arraycopy(decoded, 2 * i, dst, 2 * (dstIndex + count), 2 * n);
+			count += n;
+			position += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Decode the block containing the current position.
+	 * @return The index of the current position in the decoded block.
+	 */
+	private int prepare() {
+		int block = (int) (position / blockSize);
+		if (block != decodedBlock) {
+			decode(block);
+		}
+		return (int) (position - (long) block * blockSize);
+	}
+
+	private void decode(int block) {
+		if (block == decodedBlock) {
+			return;
+		}
+		int offset = (int) data.getLong(indexOffset + block * INDEX_ENTRY_SIZE + 16);
+		long expectedCount = Math.min(blockSize, size - (long) block * blockSize);
+		long ts = data.getLong(offset);
+		int count = data.getInt(offset + 8);
+		int flags = data.get(offset + 12);
+		if (count != expectedCount) {
+			throw new IllegalStateException("Block " + block + " of the UUID sequence is corrupt.");
+		}
+
+		int pos = offset + BLOCK_HEADER_SIZE;
+		decoded[0] = ts;
+		for (int i = 1; i < count; i++) {
+			long delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data.get(pos++);
+				delta |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			ts += delta;
+			decoded[2 * i] = ts;
+		}
+
+		BitReader bits = new BitReader(data, pos);
+		if ((flags & FLAG_V7) != 0) {
+			for (int i = 0; i < count; i++) {
+				decoded[2 * i] = decoded[2 * i] << 16 | 0x7000 | bits.read(12);
+				decoded[2 * i + 1] = Long.MIN_VALUE | bits.read(62);
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				decoded[2 * i] = decoded[2 * i] << 16 | bits.read(16);
+				decoded[2 * i + 1] = bits.read(64);
+			}
+		}
+		decodedBlock = block;
+		decodedCount = count;
+	}
+
+	/**
+	 * Reader of values with arbitrary bit lengths from a buffer, starting with the most significant bit.
+	 */
+	private static final class BitReader {
+
+		private final ByteBuffer in;
+		private int pos;
+		private long acc;
+		private int accBits;
+
+		BitReader(ByteBuffer in, int pos) {
+			this.in = in;
+			this.pos = pos;
+		}
+
+		long read(int bits) {
+			if (bits > 32) {
+				long high = readSmall(bits - 32);
+				return high << 32 | readSmall(32);
+			} else {
+				return readSmall(bits);
+			}
+		}
+
+		private long readSmall(int bits) {
+			while (accBits < bits) {
+				acc = acc << 8 | (in.get(pos++) & 0xFF);
+				accBits += 8;
+			}
+			accBits -= bits;
+			return (acc >>> accBits) & ((1L << bits) - 1);
+		}
+	}
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writer for sorted sequences of time ordered UUIDs in a compact binary format.
+ *
+ * <p>The UUIDs are grouped into blocks of a fixed number of UUIDs.
+ * Within a block, the 48 bit timestamps of the version 7 layout are stored as variable length deltas to the previous
+ * UUID, which usually take a single octet.
+ * The remaining 74 bits of counter and random data are bit packed, the version and variant bits are omitted.
+ * Blocks containing UUIDs of other versions or variants store all 80 bits next to the timestamp, so that any sorted
+ * sequence of UUIDs can be written without loss.
+ * An index of all blocks is written when the writer is closed, which allows {@link V7SequenceReader} to seek without
+ * decoding the preceding blocks.</p>
+ *
+ * <p>The format of the file is:</p>
+ * <pre>
+ *   magic (8) | block* | index entry* | index offset (8) | UUID count (8) | block count (4) | block size (4) | magic (8)
+ *   block:       first timestamp (8) | UUID count (4) | flags (1) | timestamp delta varint* | packed bits
+ *   index entry: first UUID (16) | block offset (8)
+ * </pre>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ *
+ * @see V7SequenceReader
+ */
+public class V7SequenceWriter implements Closeable {
+
+	/** The default number of UUIDs in a block. */
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	static final long MAGIC = 0x5555494437535131L; // UUID7SQ1
+	static final int TRAILER_SIZE = 32;
+	static final int INDEX_ENTRY_SIZE = 24;
+	static final int BLOCK_HEADER_SIZE = 13;
+	/** Block flag marking UUIDs of version 7 and variant RFC 4122, which are stored without these bits. */
+	static final int FLAG_V7 = 1;
+	static final int V7_BITS = 12 + 62;
+	static final int RAW_BITS = 16 + 64;
+
+	private final WritableByteChannel channel;
+	private final int blockSize;
+	private final long[] block;
+	private final ByteBuffer out;
+	private int blockCount;
+	private long totalCount;
+	private long lastMsb;
+	private long lastLsb;
+	private long offset;
+	private long[] index = new long[3 * 16];
+	private int indexCount;
+	private boolean closed;
+
+	/**
+	 * Create a new writer for the given channel.
+	 * @param channel The channel to write to.
+	 * @param blockSize The number of UUIDs in a block.
+	 * @throws IOException If writing the file header fails.
+	 * @throws IllegalArgumentException If the block size is smaller than 1 or larger than {@code 2^20}.
+	 */
+	public V7SequenceWriter(WritableByteChannel channel, int blockSize) throws IOException {
+		if (blockSize < 1 || blockSize > 1 << 20) {
+			throw new IllegalArgumentException("The block size must be between 1 and 2^20.");
+		}
+		this.channel = channel;
+		this.blockSize = blockSize;
+		this.block = new long[2 * blockSize];
+		// worst case of a block: 10 octet varints and 80 bits per UUID
+		this.out = ByteBuffer.allocate(BLOCK_HEADER_SIZE + blockSize * 20 + 8);
+		out.putLong(MAGIC);
+		drain();
+	}
+
+	/**
+	 * Create a new writer for the given channel with the default block size.
+	 * @param channel The channel to write to.
+	 * @throws IOException If writing the file header fails.
+	 */
+	public V7SequenceWriter(WritableByteChannel channel) throws IOException {
+		this(channel, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Create a new writer for the given stream with the default block size.
+	 * @param out The stream to write to.
+	 * @throws IOException If writing the file header fails.
+	 */
+	public V7SequenceWriter(OutputStream out) throws IOException {
+		this(Channels.newChannel(out));
+	}
+
+	/**
+	 * Write a UUID.
+	 * @param uuid The UUID to write.
+	 * @throws IOException If writing to the channel fails.
+	 * @throws IllegalArgumentException If the UUID is smaller than the previously written one.
+	 */
+	public void write(UUID uuid) throws IOException {
+		write(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Write a UUID given by its two halves.
+	 * @param msb The most significant 64 bits of the UUID.
+	 * @param lsb The least significant 64 bits of the UUID.
+	 * @throws IOException If writing to the channel fails.
+	 * @throws IllegalArgumentException If the UUID is smaller than the previously written one.
+	 */
+	public void write(long msb, long lsb) throws IOException {
+		if (closed) {
+			throw new IOException("Writer has been closed.");
+		}
+		if (blockCount > 0) {
+			if (UUIDBits.compare(block[2 * blockCount - 2], block[2 * blockCount - 1], msb, lsb) > 0) {
+				throw new IllegalArgumentException("UUIDs must be written in ascending order.");
+			}
+		} else if (indexCount > 0) {
+			if (UUIDBits.compare(lastMsb, lastLsb, msb, lsb) > 0) {
+				throw new IllegalArgumentException("UUIDs must be written in ascending order.");
+			}
+		}
+		block[2 * blockCount] = msb;
+		block[2 * blockCount + 1] = lsb;
+		blockCount++;
+		if (blockCount == blockSize) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * Write a batch of UUIDs from a packed array.
+	 *
+	 * The array contains the most significant half of the UUID with index {@code i} at {@code 2*i} and the least
+	 * significant half at {@code 2*i+1}.
+	 *
+	 * @param packed The array containing the halves of the UUIDs.
+	 * @param index The index of the first UUID to write.
+	 * @param count The number of UUIDs to write.
+	 * @throws IOException If writing to the channel fails.
+	 * @throws IllegalArgumentException If the UUIDs are not in ascending order.
+	 */
+	public void write(long[] packed, int index, int count) throws IOException {
+		for (int i = index; i < index + count; i++) {
+			write(packed[2 * i], packed[2 * i + 1]);
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		boolean v7 = true;
+		for (int i = 0; i < blockCount; i++) {
+			v7 &= UUIDBits.version(block[2 * i]) == 7 && UUIDBits.isRfc4122(block[2 * i + 1]);
+		}
+
+		addIndexEntry(block[0], block[1], offset);
+		long previous = UUIDBits.v7Millis(block[0]);
+		out.putLong(previous);
+		out.putInt(blockCount);
+		out.put((byte) (v7 ? FLAG_V7 : 0));
+		for (int i = 1; i < blockCount; i++) {
+			long ts = UUIDBits.v7Millis(block[2 * i]);
+			putVarint(ts - previous);
+			previous = ts;
+		}
+
+		BitPacker bits = new BitPacker(out);
+		for (int i = 0; i < blockCount; i++) {
+			long msb = block[2 * i];
+			long lsb = block[2 * i + 1];
+			if (v7) {
+				bits.write(msb & 0x0FFFL, 12);
+				bits.write(lsb & 0x3FFFFFFFFFFFFFFFL, 62);
+			} else {
+				bits.write(msb & 0xFFFFL, 16);
+				bits.write(lsb, 64);
+			}
+		}
+		bits.finish();
+
+		lastMsb = block[2 * blockCount - 2];
+		lastLsb = block[2 * blockCount - 1];
+		totalCount += blockCount;
+		blockCount = 0;
+		drain();
+	}
+
+	private void putVarint(long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) (value | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private void addIndexEntry(long msb, long lsb, long blockOffset) {
+		if (3 * indexCount + 3 > index.length) {
+			index = Arrays.copyOf(index, index.length * 2);
+		}
+		index[3 * indexCount] = msb;
+		index[3 * indexCount + 1] = lsb;
+		index[3 * indexCount + 2] = blockOffset;
+		indexCount++;
+	}
+
+	private void drain() throws IOException {
+		out.flip();
+		offset += out.remaining();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/**
+	 * Write the last block and the index, and close the underlying channel.
+	 * @throws IOException If writing to or closing the channel fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (blockCount > 0) {
+				writeBlock();
+			}
+			long indexOffset = offset;
+			for (int i = 0; i < indexCount; i++) {
+				if (out.remaining() < INDEX_ENTRY_SIZE) {
+					drain();
+				}
+				out.putLong(index[3 * i]).putLong(index[3 * i + 1]).putLong(index[3 * i + 2]);
+			}
+			if (out.remaining() < TRAILER_SIZE) {
+				drain();
+			}
+			out.putLong(indexOffset).putLong(totalCount).putInt(indexCount).putInt(blockSize).putLong(MAGIC);
+			drain();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writer of values with arbitrary bit lengths into a buffer, starting with the most significant bit.
+	 */
+	private static final class BitPacker {
+
+		private final ByteBuffer out;
+		private long acc;
+		private int accBits;
+
+		BitPacker(ByteBuffer out) {
+			this.out = out;
+		}
+
+		void write(long value, int bits) {
+			if (bits > 32) {
+				writeSmall(value >>> 32, bits - 32);
+				writeSmall(value & 0xFFFFFFFFL, 32);
+			} else {
+				writeSmall(value, bits);
+			}
+		}
+
+		private void writeSmall(long value, int bits) {
+			acc = acc << bits | value;
+			accBits += bits;
+			while (accBits >= 8) {
+				accBits -= 8;
+				out.put((byte) (acc >>> accBits));
+			}
+		}
+
+		void finish() {
+			if (accBits > 0) {
+				out.put((byte) (acc << (8 - accBits)));
+				accBits = 0;
+			}
+		}
+	}
+
+}
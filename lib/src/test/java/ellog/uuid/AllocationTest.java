@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the number of bytes allocated by the generation, parsing and formatting paths.
+ *
+ * The budgets are upper bounds per operation, measured after the code has been compiled by the JIT.
+ * Paths working on primitives and caller provided arrays must not allocate at all.
+ */
+public class AllocationTest {
+
+	/** Budget of one UUID object including its octet buffer and backing array. */
+	private static final long UUID_BYTES = 128;
+	/** Budget of one call to the secure random generator, which depends on the provider of the platform. */
+	private static final long RANDOM_BYTES = 128;
+	/** Budget of the timestamp objects of the time providers. */
+	private static final long TIME_BYTES = 64;
+
+	private static final int WARMUP = 20_000;
+	private static final int ROUNDS = 5;
+	private static final int ITERATIONS = 10_000;
+
+	private static Object sink;
+
+	@FunctionalInterface
+	private interface Operation {
+		Object run() throws Exception;
+	}
+
+	/**
+	 * Measure the allocated bytes per operation of the current thread.
+	 * The smallest value of several rounds is used, so that one-time allocations are not counted.
+	 */
+	private static double bytesPerOperation(Operation op) throws Exception {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Thread allocation counter is not available.");
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counter is not supported.");
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+
+		for (int i = 0; i < WARMUP; i++) {
+			sink = op.run();
+		}
+		double min = Double.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++) {
+			long before = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < ITERATIONS; i++) {
+				sink = op.run();
+			}
+			long after = threads.getThreadAllocatedBytes(thread);
+			min = Math.min(min, (after - before) / (double) ITERATIONS);
+		}
+		return min;
+	}
+
+	private static void assertBudget(String name, long budget, Operation op) throws Exception {
+		double bytes = bytesPerOperation(op);
+		assertTrue(bytes <= budget, name + " allocates " + bytes + " bytes per operation, the budget is " + budget + ".");
+	}
+
+	@Test
+	void suppliers() throws Exception {
+		assertBudget("TimeV1Supplier", UUID_BYTES + TIME_BYTES, new TimeV1Supplier()::get);
+		assertBudget("TimeV6Supplier", UUID_BYTES + TIME_BYTES, new TimeV6Supplier()::get);
+		assertBudget("TimeV7Supplier", UUID_BYTES + TIME_BYTES + 2 * RANDOM_BYTES, new TimeV7Supplier()::get);
+		assertBudget("Version4Supplier", UUID_BYTES + 3 * RANDOM_BYTES, new Version4Supplier()::get);
+		NameBasedSupplier nameBased = NameBasedSupplier.version5(NameBasedSupplier.NS_DNS)
+			.setData("example.com".getBytes(StandardCharsets.UTF_8));
+		// namespace octets and the digest value
+		assertBudget("NameBasedSupplier", UUID_BYTES + 160, nameBased::get);
+	}
+
+	@Test
+	void parseAndFormat() throws Exception {
+		UUID uuid = UUID.createRandom();
+		long msb = uuid.getMostSignificantBits();
+		long lsb = uuid.getLeastSignificantBits();
+		String hex = uuid.toString();
+		byte[] ascii = hex.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer asciiBuffer = ByteBuffer.allocateDirect(ascii.length).put(ascii);
+		long[] dst = new long[2];
+		byte[] out = new byte[BatchHexParser.HEX_LENGTH];
+		ByteBuffer outBuffer = ByteBuffer.allocateDirect(BatchHexParser.HEX_LENGTH);
+
+		assertBudget("UUID.parseHex", UUID_BYTES, () -> UUID.parseHex(hex));
+		assertBudget("UUID.parseHexLazy", UUID_BYTES, () -> UUID.parseHexLazy(hex));
+		assertBudget("UUID.fromLongs", UUID_BYTES, () -> UUID.fromLongs(msb, lsb));
+		// the interner reports its savings based on this size
+		assertEquals(UUIDInterner.ESTIMATED_INSTANCE_SIZE, bytesPerOperation(() -> UUID.fromLongs(msb, lsb)), 8.0);
+		// string object, its value and the intermediate octets
+		assertBudget("UUID.toString", 160, uuid::toString);
+
+		assertBudget("BatchHexParser.tryParse(byte[])", 0, () -> BatchHexParser.tryParse(ascii, 0, dst, 0));
+		assertBudget("BatchHexParser.tryParse(ByteBuffer)", 0, () -> BatchHexParser.tryParse(asciiBuffer, 0, dst, 0));
+		assertBudget("BatchHexFormatter.format(byte[])", 0, () -> {
+			BatchHexFormatter.format(msb, lsb, out, 0);
+			return null;
+		});
+		assertBudget("BatchHexFormatter.format(ByteBuffer)", 0, () -> {
+			BatchHexFormatter.format(msb, lsb, outBuffer, 0);
+			return null;
+		});
+	}
+
+	@Test
+	void streams() throws Exception {
+		WritableByteChannel discard = new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer src) {
+				int n = src.remaining();
+				src.position(src.limit());
+				return n;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		UUIDWriter writer = new UUIDWriter(discard);
+		assertBudget("UUIDWriter.write", 0, () -> {
+			writer.write(0x0123456789ABCDEFL, 0x8123456789ABCDEFL);
+			return null;
+		});
+
+		int rows = 1024;
+		byte[] content = new byte[rows * (BatchHexParser.HEX_LENGTH + 1)];
+		for (int i = 0; i < rows; i++) {
+			BatchHexFormatter.format(i, i, content, i * (BatchHexParser.HEX_LENGTH + 1));
+			content[i * (BatchHexParser.HEX_LENGTH + 1) + BatchHexParser.HEX_LENGTH] = '\n';
+		}
+		ByteBuffer input = ByteBuffer.wrap(content);
+		long[] dst = new long[2 * rows];
+		// one reader per operation, the rows are read without further allocations
+		double bytes = bytesPerOperation(() -> new UUIDReader(input).read(dst, 0, rows));
+		assertTrue(bytes < 1024, "UUIDReader allocates " + bytes + " bytes per " + rows + " rows.");
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchHexParserTest {
+
+	@Test
+	void parseBatch() {
+		int n = 100;
+		UUID[] ids = new UUID[n];
+		StringBuilder csv = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			ids[i] = UUID.createRandom();
+			String hex = ids[i].toString();
+			csv.append(i % 2 == 0 ? hex : hex.toUpperCase()).append(",\n");
+		}
+		byte[] ascii = csv.toString().getBytes(StandardCharsets.US_ASCII);
+
+		long[] packed = new long[2 * n];
+		BatchHexParser.parse(ascii, 0, 38, packed, 0, n);
+		long[] fromBuffer = new long[2 * n];
+		BatchHexParser.parse(ByteBuffer.allocateDirect(ascii.length).put(ascii), 0, 38, fromBuffer, 0, n);
+
+		UUIDView view = UUIDView.over(packed);
+		for (int i = 0; i < n; i++) {
+			assertEquals(0, view.moveTo(i).compareTo(ids[i]));
+		}
+		assertArrayEquals(packed, fromBuffer);
+	}
+
+	@Test
+	void rejectMalformed() {
+		String valid = "89abcdef-4567-1123-b234-cba987654321";
+		long[] dst = new long[2];
+		Random rand = new Random(42);
+		char[] invalidChars = { '/', ':', '@', 'G', '`', 'g', ' ', '\u00e4', '\u0130' };
+		for (int pos = 0; pos < valid.length(); pos++) {
+			for (char c : invalidChars) {
+				char[] chars = valid.toCharArray();
+				chars[pos] = c;
+				String s = new String(chars);
+				byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+				assertFalse(BatchHexParser.tryParse(bytes, 0, dst, 0), s);
+				assertThrows(IllegalArgumentException.class, () -> UUID.parseHex(s));
+			}
+			// swapping a digit with a dash must fail as well
+			char[] chars = valid.toCharArray();
+			chars[pos] = chars[pos] == '-' ? Character.forDigit(rand.nextInt(16), 16) : '-';
+			assertFalse(BatchHexParser.tryParse(new String(chars).getBytes(StandardCharsets.US_ASCII), 0, dst, 0));
+		}
+
+		byte[] batch = (valid + "\n" + valid.replace('c', 'x') + "\n").getBytes(StandardCharsets.US_ASCII);
+		long[] packed = new long[4];
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+			() -> BatchHexParser.parse(batch, 0, 37, packed, 0, 2));
+		assertTrue(ex.getMessage().contains("UUID 1"));
+		assertEquals(UUID.parseHex(valid), UUID.fromLongs(packed[0], packed[1]));
+	}
+
+	@Test
+	void parseAllDigits() {
+		String s = "01234567-89ab-cdef-ABCD-EF0123456789";
+		long[] dst = new long[2];
+		assertTrue(BatchHexParser.tryParse(s.getBytes(StandardCharsets.US_ASCII), 0, dst, 0));
+		assertEquals(0x0123456789ABCDEFL, dst[0]);
+		assertEquals(0xABCDEF0123456789L, dst[1]);
+		assertEquals(s.toLowerCase(), UUID.parseHex(s).toString());
+	}
+
+}
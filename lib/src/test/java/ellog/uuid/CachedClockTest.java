@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedClockTest {
+
+	/**
+	 * Clock advancing by one millisecond on every read.
+	 */
+	private static class CountingClock extends Clock {
+		final AtomicLong reads = new AtomicLong();
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(1_700_000_000_000L + reads.incrementAndGet());
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+
+	@Test
+	void readsDoNotTouchSource() {
+		CountingClock source = new CountingClock();
+		try (CachedClock clock = new CachedClock(source, Duration.ofHours(1), CachedClock.UNBOUNDED)) {
+			long reads = source.reads.get();
+			Instant first = clock.instant();
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(first, clock.instant());
+				assertEquals(first.toEpochMilli(), clock.millis());
+			}
+			assertEquals(reads, source.reads.get());
+		}
+	}
+
+	@Test
+	void boundedStaleness() throws InterruptedException {
+		try (CachedClock clock = new CachedClock()) {
+			assertEquals(CachedClock.DEFAULT_PERIOD, clock.getPeriod());
+			assertEquals(ZoneId.of("Europe/Berlin"), clock.withZone(ZoneId.of("Europe/Berlin")).getZone());
+			Instant before = Clock.systemUTC().instant();
+			// the ticker refreshes the value every millisecond, allow for a slow scheduler
+			Thread.sleep(200);
+			assertFalse(clock.instant().isBefore(before));
+			assertTrue(clock.millis() >= before.toEpochMilli());
+		}
+	}
+
+	@Test
+	void staleValueReadsSource() throws InterruptedException {
+		Thread reader = Thread.currentThread();
+		CountDownLatch release = new CountDownLatch(1);
+		CountingClock source = new CountingClock() {
+			@Override
+			public Instant instant() {
+				// the ticker thread hangs, like a ticker which is not scheduled
+				while (Thread.currentThread() != reader && release.getCount() > 0) {
+					try {
+						release.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return super.instant();
+					}
+				}
+				return super.instant();
+			}
+		};
+		try (CachedClock clock = new CachedClock(source, Duration.ofMillis(1), Duration.ofMillis(5))) {
+			assertEquals(Duration.ofMillis(5), clock.getMaxStaleness());
+			long cached = clock.millis();
+			Thread.sleep(20);
+			// the cached value is older than the maximum staleness, so the source is read directly once the age is
+			// checked, and on every following read
+			long reads = source.reads.get();
+			for (int i = 1; i < CachedClock.CHECK_INTERVAL; i++) {
+				assertEquals(cached, clock.millis());
+			}
+			assertEquals(reads, source.reads.get());
+			assertTrue(clock.millis() > cached);
+			assertTrue(clock.millis() > cached);
+			assertEquals(reads + 2, source.reads.get());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void closeReadsSource() {
+		CountingClock source = new CountingClock();
+		CachedClock clock = new CachedClock(source, Duration.ofHours(1));
+		Clock zoned = clock.withZone(ZoneId.of("Europe/Berlin"));
+		assertEquals(clock.instant(), zoned.instant());
+		clock.close();
+		long reads = source.reads.get();
+		assertNotEquals(clock.millis(), clock.millis());
+		zoned.instant();
+		assertEquals(reads + 3, source.reads.get());
+	}
+
+	@Test
+	void unreachableClockStopsTicker() throws InterruptedException {
+		long before = countTickers();
+		new CachedClock(new CountingClock(), Duration.ofMillis(1)).millis();
+		assertEquals(before + 1, countTickers());
+		for (int i = 0; i < 100 && countTickers() > before; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertEquals(before, countTickers());
+	}
+
+	private static long countTickers() {
+		return Thread.getAllStackTraces().keySet().stream()
+			.filter(t -> t.isAlive() && "UUID clock ticker".equals(t.getName()))
+			.count();
+	}
+
+	@Test
+	void uniqueWithProviders() {
+		try (CachedClock clock = new CachedClock(new CountingClock(), Duration.ofHours(1))) {
+			TimeV7Supplier v7 = new TimeV7Supplier(TimeProviderV7.create().setClock(clock), 12);
+			TimeV1Supplier v1 = new TimeV1Supplier(TimeProviderV1.create().setClock(clock));
+			Set<UUID> ids = new HashSet<>();
+			UUID lastV7 = null;
+			for (int i = 0; i < 10_000; i++) {
+				UUID next = v7.get();
+				assertTrue(ids.add(next));
+				assertTrue(ids.add(v1.get()));
+				if (lastV7 != null) {
+					assertTrue(lastV7.compareTo(next) < 0);
+				}
+				lastV7 = next;
+			}
+		}
+	}
+
+	@Test
+	void invalidPeriod() {
+		assertThrows(IllegalArgumentException.class, () -> new CachedClock(Clock.systemUTC(), Duration.ZERO));
+		assertThrows(IllegalArgumentException.class,
+			() -> new CachedClock(Clock.systemUTC(), Duration.ofMillis(2), Duration.ofMillis(1)));
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRouterTest {
+
+	static long[] sequentialV7(int count) {
+		// ids of the same millisecond only differing in the low bits, the worst case for naive hashing
+		long[] ids = new long[2 * count];
+		for (int i = 0; i < count; i++) {
+			ids[2 * i] = 0x018B_5A2F_3C00_7000L | (i >>> 20);
+			ids[2 * i + 1] = 0x8000_0000_0000_0000L | i;
+		}
+		return ids;
+	}
+
+	@Test
+	void jumpConsistentIsUniform() {
+		int shards = 256;
+		int count = 256 * 1000;
+		ShardRouter router = ShardRouter.jumpConsistent(shards);
+		long[] ids = sequentialV7(count);
+		int[] out = new int[count];
+		router.route(ids, out);
+
+		int[] histogram = new int[shards];
+		for (int i = 0; i < count; i++) {
+			assertEquals(router.route(ids[2 * i], ids[2 * i + 1]), out[i]);
+			histogram[out[i]]++;
+		}
+		for (int h : histogram) {
+			// expected 1000 per shard, allow about 6 standard deviations
+			assertTrue(h > 800 && h < 1200, "unbalanced shard: " + h);
+		}
+	}
+
+	@Test
+	void jumpConsistentMovesFewKeys() {
+		int count = 100_000;
+		long[] ids = sequentialV7(count);
+		int[] before = new int[count];
+		int[] after = new int[count];
+		ShardRouter.jumpConsistent(100).route(ids, before);
+		ShardRouter.jumpConsistent(101).route(ids, after);
+
+		int moved = 0;
+		for (int i = 0; i < count; i++) {
+			if (before[i] != after[i]) {
+				moved++;
+				assertEquals(100, after[i]);
+			}
+		}
+		assertTrue(moved > 700 && moved < 1300, "moved keys: " + moved);
+	}
+
+	@Test
+	void weightedRendezvous() {
+		int count = 100_000;
+		ShardRouter router = ShardRouter.weightedRendezvous(1, 2, 0, 1);
+		long[] ids = sequentialV7(count);
+		int[] out = new int[count];
+		router.route(ids, out);
+
+		int[] histogram = new int[router.shardCount()];
+		for (int shard : out) {
+			histogram[shard]++;
+		}
+		assertEquals(0, histogram[2]);
+		assertTrue(Math.abs(histogram[0] - 25_000) < 1000);
+		assertTrue(Math.abs(histogram[1] - 50_000) < 1000);
+		assertTrue(Math.abs(histogram[3] - 25_000) < 1000);
+
+		// removing a shard only moves the keys of that shard
+		int[] reduced = new int[count];
+		ShardRouter.weightedRendezvous(1, 2, 0, 0).route(ids, reduced);
+		for (int i = 0; i < count; i++) {
+			if (out[i] != 3) {
+				assertEquals(out[i], reduced[i]);
+			}
+		}
+	}
+
+	@Test
+	void routeUuid() {
+		UUID uuid = new TimeV7Supplier().get();
+		ShardRouter router = ShardRouter.jumpConsistent(4096);
+		int shard = router.route(uuid);
+		assertEquals(shard, router.route(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+		assertEquals(0, ShardRouter.jumpConsistent(1).route(uuid));
+	}
+
+	@Test
+	void invalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> ShardRouter.jumpConsistent(0));
+		assertThrows(IllegalArgumentException.class, () -> ShardRouter.weightedRendezvous());
+		assertThrows(IllegalArgumentException.class, () -> ShardRouter.weightedRendezvous(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> ShardRouter.weightedRendezvous(1, Double.NaN));
+		assertThrows(IllegalArgumentException.class, () -> ShardRouter.weightedRendezvous(1, -1));
+		ShardRouter router = ShardRouter.jumpConsistent(8);
+		assertThrows(IllegalArgumentException.class, () -> router.route(new long[3], new int[2]));
+		assertThrows(IllegalArgumentException.class, () -> router.route(new long[4], new int[1]));
+	}
+
+}
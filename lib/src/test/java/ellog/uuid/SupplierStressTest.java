@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates UUIDs from many threads with regular and manipulated clocks.
+ *
+ * For every supplier the UUIDs of all threads must be unique.
+ * The time based suppliers must also produce strictly increasing timestamps per thread, and a UUID must be ordered
+ * after all UUIDs which were completely generated before its generation started, no matter in which thread, unless the
+ * supplier only promises ordering within a thread.
+ */
+public class SupplierStressTest {
+
+	private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+	private static final int IDS_PER_THREAD = 50_000;
+	private static final long BASE_NANOS = 1_700_000_000_000_000_000L;
+	/** Shared by all tests, the ticker is a daemon thread and stops with the JVM. */
+	private static final CachedClock CACHED = new CachedClock();
+
+	/**
+	 * Clock returning a time derived from the number of previous calls.
+	 */
+	private static final class ManipulatedClock extends Clock {
+		private final String name;
+		private final LongUnaryOperator nanosOfCall;
+		private final AtomicLong calls = new AtomicLong();
+
+		ManipulatedClock(String name, LongUnaryOperator nanosOfCall) {
+			this.name = name;
+			this.nanosOfCall = nanosOfCall;
+		}
+
+		@Override
+		public Instant instant() {
+			long nanos = nanosOfCall.applyAsLong(calls.getAndIncrement());
+			return Instant.ofEpochSecond(0, nanos);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static List<Supplier<Clock>> clocks() {
+		List<Supplier<Clock>> clocks = new ArrayList<>();
+		clocks.add(Clock::systemUTC);
+		// never advances
+		clocks.add(() -> new ManipulatedClock("stalled", call -> BASE_NANOS));
+		// advances by 1us and jumps back 5ms every 5000 calls
+		clocks.add(() -> new ManipulatedClock("backward", call -> BASE_NANOS + (call % 5000) * 1000));
+		// returns every value four times
+		clocks.add(() -> new ManipulatedClock("repeating", call -> BASE_NANOS + (call / 4) * 1000));
+		// advances by less than the 100ns precision of versions 1 and 6
+		clocks.add(() -> new ManipulatedClock("fine grained", call -> BASE_NANOS + call * 60));
+		// returns the same value for a whole millisecond
+		clocks.add(() -> CACHED);
+		return clocks;
+	}
+
+	/**
+	 * Key of a UUID which must be strictly increasing in the order of generation, or null if there is no order.
+	 */
+	private interface OrderKey {
+		long of(long msb, long lsb);
+	}
+
+	@Test
+	void timeV1() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			run("TimeV1Supplier", c, new TimeV1Supplier(TimeProviderV1.create().setClock(c)),
+				(msb, lsb) -> UUIDBits.v1Timestamp(msb));
+		}
+	}
+
+	@Test
+	void timeV1Leased() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			// the threads reserve ranges of timestamps, which are only ordered within the threads
+			run("TimeV1Supplier with leases", c, new TimeV1Supplier(TimeProviderV1.create().setClock(c)).setLeaseSize(16),
+				(msb, lsb) -> UUIDBits.v1Timestamp(msb), false);
+		}
+	}
+
+	@Test
+	void timeV6() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			run("TimeV6Supplier", c, new TimeV6Supplier(TimeProviderV1.create().setClock(c)),
+				(msb, lsb) -> UUIDBits.v6Timestamp(msb));
+		}
+	}
+
+	@Test
+	void timeV7() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			// the 12 bit counter fills the rand_a field, so the most significant half is strictly increasing
+			run("TimeV7Supplier", c, new TimeV7Supplier(TimeProviderV7.create().setClock(c), 12),
+				(msb, lsb) -> msb);
+		}
+	}
+
+	@Test
+	void timeV7Leased() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			// the threads reserve ranges of counter values, which are only ordered within the threads
+			run("TimeV7Supplier with leases", c, new TimeV7Supplier(TimeProviderV7.create().setClock(c), 12).setLeaseSize(16),
+				(msb, lsb) -> msb, false);
+		}
+	}
+
+	@Test
+	void hybridV7() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			HybridTimeProviderV7 provider = new HybridTimeProviderV7();
+			provider.setClock(c);
+			run("TimeV7Supplier with HybridTimeProviderV7", c, new TimeV7Supplier(provider, 12), (msb, lsb) -> msb);
+		}
+	}
+
+	@Test
+	void globalSuppliers() throws InterruptedException {
+		run("StandardUUID.createTimeV7", Clock.systemUTC(), StandardUUID::createTimeV7, (msb, lsb) -> msb);
+		run("StandardUUID.createTimeV1", Clock.systemUTC(), StandardUUID::createTimeV1,
+			(msb, lsb) -> UUIDBits.v1Timestamp(msb));
+	}
+
+	@Test
+	void customV8() throws InterruptedException {
+		CustomV8Layout layout = CustomV8Layout.snowflake();
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			run("CustomV8Supplier", c, new CustomV8Supplier(layout, 7, TimeProviderV7.create().setClock(c)),
+				(msb, lsb) -> {
+					UUID uuid = UUID.fromLongs(msb, lsb);
+					return layout.timestampMillis(uuid) << layout.sequenceBits() | layout.sequence(uuid);
+				});
+		}
+	}
+
+	@Test
+	void partitionedV7() throws InterruptedException {
+		for (Supplier<Clock> clock : clocks()) {
+			Clock c = clock.get();
+			// only ordered within the threads, the slots keep the threads apart
+			run("PartitionedV7Supplier", c, new PartitionedV7Supplier(PartitionedV7Supplier.DEFAULT_SLOT_BITS, c),
+				(msb, lsb) -> msb, false);
+		}
+	}
+
+	@Test
+	void random() throws InterruptedException {
+		run("Version4Supplier", Clock.systemUTC(), new Version4Supplier(), null);
+	}
+
+	private static void run(String name, Clock clock, Supplier<StandardUUID> supplier, OrderKey key)
+			throws InterruptedException {
+		run(name, clock, supplier, key, true);
+	}
+
+	private static void run(String name, Clock clock, Supplier<StandardUUID> supplier, OrderKey key,
+			boolean orderedAcrossThreads) throws InterruptedException {
+		AtomicLong watermark = new AtomicLong(Long.MIN_VALUE);
+		AtomicReference<String> failure = new AtomicReference<>();
+		long[][] results = new long[THREADS][];
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			Thread worker = new Thread(() -> {
+				long[] ids = new long[2 * IDS_PER_THREAD];
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				long previous = Long.MIN_VALUE;
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					long before = orderedAcrossThreads ? watermark.get() : Long.MIN_VALUE;
+					StandardUUID uuid = supplier.get();
+					long msb = uuid.getMostSignificantBits();
+					long lsb = uuid.getLeastSignificantBits();
+					ids[2 * i] = msb;
+					ids[2 * i + 1] = lsb;
+					if (key != null) {
+						long k = key.of(msb, lsb);
+						if (k <= previous) {
+							failure.compareAndSet(null, "not increasing within thread " + thread + ": " + uuid);
+						}
+						if (orderedAcrossThreads && k <= before) {
+							failure.compareAndSet(null, "ordered before an earlier UUID of another thread: " + uuid);
+						}
+						previous = k;
+						if (orderedAcrossThreads) {
+							watermark.accumulateAndGet(k, Math::max);
+						}
+					}
+				}
+				results[thread] = ids;
+			});
+			threads.add(worker);
+			worker.start();
+		}
+
+		long startNanos = System.nanoTime();
+		start.countDown();
+		for (Thread worker : threads) {
+			worker.join();
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		long total = (long) THREADS * IDS_PER_THREAD;
+		System.out.printf("%s with %s clock: %d UUIDs from %d threads in %d ms (%.2f M/s)%n", name, clock,
+			total, THREADS, elapsedNanos / 1_000_000, total * 1e3 / elapsedNanos);
+
+		assertNull(failure.get(), name + " with " + clock + " clock");
+		LongPairSet seen = new LongPairSet(total);
+		for (long[] ids : results) {
+			assertNotNull(ids);
+			for (int i = 0; i < IDS_PER_THREAD; i++) {
+				assertTrue(seen.add(ids[2 * i], ids[2 * i + 1]),
+					name + " with " + clock + " clock produced duplicate " + UUID.fromLongs(ids[2 * i], ids[2 * i + 1]));
+			}
+		}
+	}
+
+	/**
+	 * Open addressing hash set of UUID halves without boxing.
+	 */
+	private static final class LongPairSet {
+		private final long[] slots;
+		private final boolean[] used;
+		private final int mask;
+
+		LongPairSet(long expected) {
+			int capacity = Integer.highestOneBit((int) (expected * 2 - 1)) << 1;
+			this.slots = new long[2 * capacity];
+			this.used = new boolean[capacity];
+			this.mask = capacity - 1;
+		}
+
+		boolean add(long msb, long lsb) {
+			int i = (int) UUIDBits.hash(msb, lsb) & mask;
+			while (used[i]) {
+				if (slots[2 * i] == msb && slots[2 * i + 1] == lsb) {
+					return false;
+				}
+				i = (i + 1) & mask;
+			}
+			used[i] = true;
+			slots[2 * i] = msb;
+			slots[2 * i + 1] = lsb;
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDComparatorsTest {
+
+	static UUID v1(long ts, int clockSeq, long node) {
+		long msb = (ts & 0xFFFFFFFFL) << 32 | ((ts >>> 32) & 0xFFFFL) << 16 | 0x1000L | (ts >>> 48) & 0x0FFFL;
+		long lsb = 0x8000000000000000L | (long) (clockSeq & 0x3FFF) << 48 | node;
+		return UUID.fromLongs(msb, lsb);
+	}
+
+	@Test
+	void v1TimeOrder() {
+		UUID early = v1(0x00000001FFFFFFFFL, 0x3FFF, 0xFFFFFFFFFFFFL);
+		UUID late = v1(0x0000000200000000L, 0, 0);
+		// raw octet order is reversed, because time_low comes first
+		assertTrue(early.compareTo(late) > 0);
+		assertTrue(UUIDComparators.v1TimeOrder().compare(early, late) < 0);
+		assertTrue(UUIDComparators.v1TimeKey(early) < UUIDComparators.v1TimeKey(late));
+
+		UUID seq1 = v1(0x0FFFFFFFFFFFFFFFL, 1, 5);
+		UUID seq2 = v1(0x0FFFFFFFFFFFFFFFL, 2, 4);
+		assertTrue(UUIDComparators.v1TimeOrder().compare(seq1, seq2) < 0);
+		assertEquals(0, UUIDComparators.v1TimeOrder().compare(seq1, v1(0x0FFFFFFFFFFFFFFFL, 1, 5)));
+		assertTrue(UUIDComparators.v1TimeKey(late) < UUIDComparators.v1TimeKey(seq1));
+
+		Random rand = new Random(42);
+		List<UUID> sorted = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			sorted.add(v1(rand.nextLong() >>> 4, rand.nextInt(), rand.nextLong() >>> 16));
+		}
+		List<UUID> byKey = new ArrayList<>(sorted);
+		sorted.sort(UUIDComparators.v1TimeOrder());
+		byKey.sort((a, b) -> Long.compare(UUIDComparators.v1TimeKey(a), UUIDComparators.v1TimeKey(b)));
+		for (int i = 1; i < sorted.size(); i++) {
+			StandardUUID prev = (StandardUUID) sorted.get(i - 1);
+			StandardUUID cur = (StandardUUID) sorted.get(i);
+			assertTrue(prev.timestamp() <= cur.timestamp());
+			assertEquals(UUIDComparators.v1TimeKey(sorted.get(i)), UUIDComparators.v1TimeKey(byKey.get(i)));
+		}
+	}
+
+	@Test
+	void javaUtilOrder() {
+		Random rand = new Random(42);
+		List<UUID> ours = new ArrayList<>();
+		List<java.util.UUID> jdk = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			long msb = rand.nextInt(4) == 0 ? 0 : rand.nextLong();
+			long lsb = rand.nextLong();
+			ours.add(UUID.fromLongs(msb, lsb));
+			jdk.add(new java.util.UUID(msb, lsb));
+		}
+		ours.sort(UUIDComparators.javaUtilOrder());
+		Collections.sort(jdk);
+		for (int i = 0; i < ours.size(); i++) {
+			assertEquals(jdk.get(i).toString(), ours.get(i).toString());
+		}
+	}
+
+	@Test
+	void byteOrder() {
+		Random rand = new Random(42);
+		List<UUID> ours = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			ours.add(UUID.fromLongs(rand.nextLong(), rand.nextLong()));
+		}
+		List<UUID> natural = new ArrayList<>(ours);
+		Collections.sort(natural);
+		ours.sort(UUIDComparators.byteOrder());
+		assertEquals(natural, ours);
+		for (int i = 1; i < ours.size(); i++) {
+			assertTrue(UUIDComparators.byteOrderKey(ours.get(i - 1)) <= UUIDComparators.byteOrderKey(ours.get(i)));
+		}
+	}
+
+}
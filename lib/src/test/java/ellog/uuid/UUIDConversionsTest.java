@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDConversionsTest {
+
+	@Test
+	void convertSingle() {
+		StandardUUID v1 = new TimeV1Supplier().get();
+		StandardUUID v6 = v1.toV6();
+		assertEquals(StandardVersion.TIME_BASED_ORDERED_LEGACY, v6.version());
+		assertEquals(v1.timestamp(), v6.timestamp());
+		assertEquals(v1.instant(), v6.instant());
+		assertEquals(v1.clockSequence(), v6.clockSequence());
+		assertEquals(v1.node(), v6.node());
+		assertEquals(v1, v6.toV1());
+
+		StandardUUID generated = new TimeV6Supplier().get();
+		assertEquals(generated, generated.toV1().toV6());
+
+		assertThrows(IllegalStateException.class, v1::toV1);
+		assertThrows(IllegalStateException.class, v6::toV6);
+		assertThrows(IllegalStateException.class, () -> StandardUUID.createRandom().toV6());
+	}
+
+	@Test
+	void convertPacked() {
+		Random rand = new Random(42);
+		List<UUID> v1s = new ArrayList<>();
+		long[] packed = new long[2 * 1000];
+		for (int i = 0; i < 1000; i++) {
+			UUID uuid = i % 10 == 0
+				? StandardUUID.createRandom()
+				: UUIDComparatorsTest.v1(rand.nextLong() >>> 4, rand.nextInt(), rand.nextLong() >>> 16);
+			if (i % 10 != 0) {
+				v1s.add(uuid);
+			}
+			packed[2 * i] = uuid.getMostSignificantBits();
+			packed[2 * i + 1] = uuid.getLeastSignificantBits();
+		}
+		long[] original = packed.clone();
+
+		assertEquals(900, UUIDConversions.v1ToV6(packed));
+		assertEquals(0, UUIDConversions.v1ToV6(packed));
+		for (int i = 0; i < 1000; i += 10) {
+			assertEquals(original[2 * i], packed[2 * i]);
+		}
+
+		// the v6 layout sorts by time
+		UUIDSort.sort(packed);
+		v1s.sort(UUIDComparators.v1TimeOrder());
+		int next = 0;
+		for (int i = 0; i < 1000; i++) {
+			StandardUUID uuid = StandardUUID.fromLongs(packed[2 * i], packed[2 * i + 1]);
+			if (uuid.version() == StandardVersion.TIME_BASED_ORDERED_LEGACY) {
+				assertEquals(v1s.get(next++), uuid.toV1());
+			}
+		}
+		assertEquals(900, next);
+
+		assertEquals(900, UUIDConversions.v6ToV1(packed));
+		UUIDSort.sort(packed);
+		UUIDSort.sort(original);
+		assertArrayEquals(original, packed);
+		assertThrows(IllegalArgumentException.class, () -> UUIDConversions.v1ToV6(new long[3]));
+	}
+
+	@Test
+	void convertStream() {
+		StandardUUID[] uuids = new StandardUUID[5];
+		ByteBuffer src = ByteBuffer.allocate(16 * uuids.length);
+		TimeV1Supplier supplier = new TimeV1Supplier();
+		for (int i = 0; i < uuids.length; i++) {
+			uuids[i] = supplier.get();
+			uuids[i].writeTo(src);
+		}
+		src.flip();
+
+		ByteBuffer dst = ByteBuffer.allocate(40);
+		assertEquals(2, UUIDConversions.v1ToV6(src, dst));
+		assertEquals(32, src.position());
+		assertEquals(32, dst.position());
+		dst.flip();
+		assertEquals(uuids[0].toV6(), UUID.readFrom(dst));
+		assertEquals(uuids[1].toV6(), UUID.readFrom(dst));
+
+		dst.clear();
+		assertEquals(2, UUIDConversions.v1ToV6(src, dst));
+		dst.clear();
+		assertEquals(1, UUIDConversions.v1ToV6(src, dst));
+		assertEquals(0, UUIDConversions.v1ToV6(src, dst));
+		dst.flip();
+		assertEquals(uuids[4].toV6(), UUID.readFrom(dst));
+
+		ByteBuffer back = ByteBuffer.allocate(16);
+		dst.flip();
+		assertEquals(1, UUIDConversions.v6ToV1(dst, back));
+		back.flip();
+		assertEquals(uuids[4], UUID.readFrom(back));
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDFilterTest {
+
+	static long[] ids(int count, long seed) {
+		Random rand = new Random(seed);
+		long[] packed = new long[2 * count];
+		for (int i = 0; i < count; i++) {
+			if ((i & 1) == 0) {
+				// random
+				packed[2 * i] = rand.nextLong() & ~0xF000L | 0x4000L;
+				packed[2 * i + 1] = rand.nextLong() >>> 2 | 0x8000000000000000L;
+			} else {
+				// time based, sharing the timestamp prefix
+				packed[2 * i] = (0x018B5A2F3C00L + i / 64) << 16 | 0x7000L | (i & 0x0FFF);
+				packed[2 * i + 1] = 0x8000000000000000L | seed << 32 | i;
+			}
+		}
+		return packed;
+	}
+
+	@Test
+	void bloomFilter() throws IOException {
+		int count = 100_000;
+		UUIDBloomFilter filter = UUIDBloomFilter.create(count, 0.01);
+		long[] added = ids(count, 1);
+		for (int i = 0; i < count; i++) {
+			filter.put(added[2 * i], added[2 * i + 1]);
+		}
+		for (int i = 0; i < count; i++) {
+			assertTrue(filter.mightContain(added[2 * i], added[2 * i + 1]));
+		}
+		assertFalse(filter.put(added[0], added[1]));
+
+		long[] other = ids(count, 2);
+		int falsePositives = 0;
+		for (int i = 0; i < count; i++) {
+			if (filter.mightContain(other[2 * i], other[2 * i + 1])) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < count * 0.012, "false positives: " + falsePositives);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(new byte[3]);
+		filter.writeTo(Channels.newChannel(out));
+		assertEquals(3 + filter.sizeInBytes(), out.size());
+		ByteBuffer buf = ByteBuffer.wrap(out.toByteArray());
+		buf.position(3);
+		UUIDBloomFilter loaded = UUIDBloomFilter.load(buf);
+		for (int i = 0; i < count; i++) {
+			assertTrue(loaded.mightContain(added[2 * i], added[2 * i + 1]));
+			assertEquals(filter.mightContain(other[2 * i], other[2 * i + 1]),
+				loaded.mightContain(other[2 * i], other[2 * i + 1]));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> UUIDBloomFilter.load(ByteBuffer.allocate(64)));
+		assertThrows(IllegalArgumentException.class, () -> UUIDBloomFilter.create(10, 0));
+		assertThrows(IllegalArgumentException.class, () -> UUIDBloomFilter.create(-1, 0.1));
+	}
+
+	@Test
+	void cuckooFilter() {
+		int count = 100_000;
+		UUIDCuckooFilter filter = UUIDCuckooFilter.create(count);
+		long[] added = ids(count, 1);
+		for (int i = 0; i < count; i++) {
+			assertTrue(filter.add(added[2 * i], added[2 * i + 1]));
+		}
+		assertEquals(count, filter.size());
+		for (int i = 0; i < count; i++) {
+			assertTrue(filter.mightContain(added[2 * i], added[2 * i + 1]));
+		}
+
+		long[] other = ids(count, 2);
+		int falsePositives = 0;
+		for (int i = 0; i < count; i++) {
+			if (filter.mightContain(other[2 * i], other[2 * i + 1])) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < count * 0.001, "false positives: " + falsePositives);
+
+		for (int i = 0; i < count; i += 2) {
+			assertTrue(filter.remove(added[2 * i], added[2 * i + 1]));
+		}
+		assertEquals(count / 2, filter.size());
+		for (int i = 1; i < count; i += 2) {
+			assertTrue(filter.mightContain(added[2 * i], added[2 * i + 1]));
+		}
+	}
+
+	@Test
+	void cuckooFilterFull() {
+		UUIDCuckooFilter filter = UUIDCuckooFilter.create(100);
+		long[] added = ids(1000, 3);
+		int inserted = 0;
+		while (filter.add(added[2 * inserted], added[2 * inserted + 1])) {
+			inserted++;
+		}
+		assertTrue(inserted >= 100);
+		assertEquals(inserted, filter.size());
+		for (int i = 0; i < inserted; i++) {
+			assertTrue(filter.mightContain(added[2 * i], added[2 * i + 1]));
+		}
+
+		assertTrue(filter.remove(added[0], added[1]));
+		assertTrue(filter.add(added[2 * inserted], added[2 * inserted + 1]));
+		for (int i = 1; i <= inserted; i++) {
+			assertTrue(filter.mightContain(added[2 * i], added[2 * i + 1]));
+		}
+	}
+
+	@Test
+	void memoryMappedFilter() throws IOException {
+		Path file = Files.createTempFile("uuid-filter", ".bin");
+		try {
+			long[] added = ids(1000, 4);
+			UUIDCuckooFilter filter = UUIDCuckooFilter.create(2000);
+			for (int i = 0; i < 500; i++) {
+				filter.add(added[2 * i], added[2 * i + 1]);
+			}
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				filter.writeTo(ch);
+			}
+
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+				UUIDCuckooFilter mapped = UUIDCuckooFilter.load(map);
+				assertEquals(500, mapped.size());
+				for (int i = 500; i < 1000; i++) {
+					mapped.add(added[2 * i], added[2 * i + 1]);
+				}
+				map.force();
+			}
+
+			UUIDCuckooFilter reloaded = UUIDCuckooFilter.load(ByteBuffer.wrap(Files.readAllBytes(file)));
+			assertEquals(1000, reloaded.size());
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(reloaded.mightContain(added[2 * i], added[2 * i + 1]));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDInternerTest {
+
+	@Test
+	void internSameInstance() {
+		UUIDInterner interner = new UUIDInterner(64);
+		String str = "01234567-89ab-cdef-0123-456789abcdef";
+		UUID first = interner.intern(str);
+		assertEquals(UUID.parseHex(str), first);
+		assertSame(first, interner.intern(str.toUpperCase()));
+		assertSame(first, interner.intern(0x0123456789ABCDEFL, 0x0123456789ABCDEFL));
+
+		byte[] frame = new byte[20];
+		ByteBuffer.wrap(frame, 4, 16).putLong(0x0123456789ABCDEFL).putLong(0x0123456789ABCDEFL);
+		assertSame(first, interner.intern(frame, 4));
+		assertSame(first, interner.intern(ByteBuffer.wrap(frame), 4));
+		assertSame(first, interner.intern(UUID.parseHex(str)));
+
+		assertEquals(1, interner.missCount());
+		assertEquals(5, interner.hitCount());
+		assertEquals(5.0 / 6, interner.hitRate(), 1e-9);
+		assertEquals(5L * UUIDInterner.ESTIMATED_INSTANCE_SIZE, interner.estimatedBytesSaved());
+
+		assertThrows(IllegalArgumentException.class, () -> interner.intern("01234567-89ab-cdef-0123-456789abcdeg"));
+	}
+
+	@Test
+	void boundedSize() {
+		UUIDInterner interner = new UUIDInterner(16);
+		UUID first = interner.intern(1, 1);
+		for (int i = 2; i < 1000; i++) {
+			interner.intern(i, i);
+		}
+		UUID again = interner.intern(1, 1);
+		assertEquals(first, again);
+		assertNotSame(first, again);
+		assertEquals(0, interner.hitCount());
+		assertEquals(0, new UUIDInterner(4).hitRate());
+		assertThrows(IllegalArgumentException.class, () -> new UUIDInterner(3));
+	}
+
+	@Test
+	void concurrentIntern() throws InterruptedException {
+		UUIDInterner interner = new UUIDInterner(1024);
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					long v = i % 100;
+					UUID uuid = interner.intern(v, ~v);
+					if (uuid.getMostSignificantBits() != v || uuid.getLeastSignificantBits() != ~v) {
+						synchronized (errors) {
+							errors.add(new AssertionError("wrong value for " + v));
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(errors.isEmpty());
+		assertEquals(400_000, interner.hitCount() + interner.missCount());
+		assertTrue(interner.hitRate() > 0.9);
+	}
+
+}
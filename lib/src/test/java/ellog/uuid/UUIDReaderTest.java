@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDReaderTest {
+
+	private static byte[] ascii(String s) {
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Test
+	void readBatches() throws IOException {
+		int n = 5000;
+		List<UUID> ids = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			UUID id = UUID.createRandom();
+			ids.add(id);
+			sb.append(id).append(i % 3 == 0 ? "\r\n" : "\n");
+			if (i % 100 == 0) {
+				sb.append('\n');
+			}
+		}
+
+		// small buffer, so rows cross buffer boundaries
+		UUIDReader reader = new UUIDReader(Channels.newChannel(new ByteArrayInputStream(ascii(sb.toString()))), 100);
+		long[] batch = new long[2 * 64];
+		int total = 0;
+		int num;
+		while ((num = reader.read(batch, 0, 64)) >= 0) {
+			for (int i = 0; i < num; i++) {
+				assertEquals(ids.get(total + i), UUID.fromLongs(batch[2 * i], batch[2 * i + 1]));
+			}
+			total += num;
+		}
+		assertEquals(n, total);
+	}
+
+	@Test
+	void readObjectsFromBuffer() throws IOException {
+		String a = "89abcdef-4567-1123-b234-cba987654321";
+		String b = "01234567-89AB-CDEF-0123-456789ABCDEF";
+		UUIDReader reader = new UUIDReader(ByteBuffer.wrap(ascii(a + ";" + b)))
+			.setDelimiters((byte) ';');
+		assertEquals(UUID.parseHex(a), reader.read());
+		assertEquals(UUID.parseHex(b), reader.read());
+		assertNull(reader.read());
+	}
+
+	@Test
+	void crlfWithoutSkippingBlankLines() throws IOException {
+		String a = "89abcdef-4567-1123-b234-cba987654321";
+		String b = "01234567-89ab-cdef-0123-456789abcdef";
+		byte[] input = ascii(a + "\r\n" + b + "\r\n");
+		UUIDReader fromBuffer = new UUIDReader(ByteBuffer.wrap(input)).setSkipBlankLines(false);
+		assertEquals(UUID.parseHex(a), fromBuffer.read());
+		assertEquals(UUID.parseHex(b), fromBuffer.read());
+		assertNull(fromBuffer.read());
+
+		// the buffer holds exactly one row and its carriage return, so the line feed arrives with the next fill
+		UUIDReader fromStream = new UUIDReader(Channels.newChannel(new ByteArrayInputStream(input)), 37)
+			.setSkipBlankLines(false);
+		assertEquals(UUID.parseHex(a), fromStream.read());
+		assertEquals(UUID.parseHex(b), fromStream.read());
+		assertNull(fromStream.read());
+
+		// a blank row is still reported, at the offset after the complete delimiter
+		UUIDReader blank = new UUIDReader(ByteBuffer.wrap(ascii(a + "\r\n\r\n" + b))).setSkipBlankLines(false);
+		assertNotNull(blank.read());
+		MalformedUUIDException ex = assertThrows(MalformedUUIDException.class, blank::read);
+		assertEquals(38, ex.getOffset());
+		assertEquals(0, ex.getLength());
+	}
+
+	@Test
+	void reportMalformed() throws IOException {
+		String valid = "89abcdef-4567-1123-b234-cba987654321";
+		char[] zeros = new char[300];
+		Arrays.fill(zeros, '0');
+		String input = valid + "\nnot a uuid\n\n" + valid.replace('a', 'x') + "\n" + valid + "\n" + new String(zeros) + "\n" + valid;
+		List<Long> offsets = new ArrayList<>();
+		List<Integer> lengths = new ArrayList<>();
+		UUIDReader reader = new UUIDReader(Channels.newChannel(new ByteArrayInputStream(ascii(input))), 64)
+			.setMalformedHandler((offset, length) -> {
+				offsets.add(offset);
+				lengths.add(length);
+			});
+		long[] dst = new long[20];
+		assertEquals(3, reader.read(dst, 0, 10));
+		assertEquals(-1, reader.read(dst, 0, 10));
+		assertEquals(List.of(37L, 49L, 123L), offsets);
+		assertEquals(List.of(10, 36, 300), lengths);
+
+		UUIDReader strict = new UUIDReader(ByteBuffer.wrap(ascii(valid + "\n\n" + valid)))
+			.setSkipBlankLines(false);
+		assertNotNull(strict.read());
+		MalformedUUIDException ex = assertThrows(MalformedUUIDException.class, strict::read);
+		assertEquals(37, ex.getOffset());
+		assertEquals(0, ex.getLength());
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDSortTest {
+
+	static long[] random(int count, long seed) {
+		Random rand = new Random(seed);
+		long[] packed = new long[2 * count];
+		for (int i = 0; i < count; i++) {
+			switch (rand.nextInt(3)) {
+				case 0:
+					// time based prefix with few distinct values
+					packed[2 * i] = 0x018B5A2F3C007000L | rand.nextInt(4) << 16 | rand.nextInt(16);
+					packed[2 * i + 1] = 0x8000000000000000L | rand.nextInt(8);
+					break;
+				case 1:
+					// duplicates in the high half
+					packed[2 * i] = rand.nextInt(2) == 0 ? -1L : Long.MIN_VALUE;
+					packed[2 * i + 1] = rand.nextLong();
+					break;
+				default:
+					packed[2 * i] = rand.nextLong();
+					packed[2 * i + 1] = rand.nextLong();
+			}
+		}
+		return packed;
+	}
+
+	static long[] expected(long[] packed) {
+		UUID[] uuids = new UUID[packed.length / 2];
+		for (int i = 0; i < uuids.length; i++) {
+			uuids[i] = UUID.fromLongs(packed[2 * i], packed[2 * i + 1]);
+		}
+		Arrays.sort(uuids);
+		long[] result = new long[packed.length];
+		for (int i = 0; i < uuids.length; i++) {
+			result[2 * i] = uuids[i].getMostSignificantBits();
+			result[2 * i + 1] = uuids[i].getLeastSignificantBits();
+		}
+		return result;
+	}
+
+	@Test
+	void sortPacked() {
+		for (int count : new int[] {0, 1, 2, 31, 32, 33, 1000, 10_000}) {
+			long[] packed = random(count, count);
+			long[] exp = expected(packed);
+			UUIDSort.sort(packed);
+			assertArrayEquals(exp, packed);
+		}
+	}
+
+	@Test
+	void sortConstant() {
+		long[] packed = new long[2 * 100];
+		Arrays.fill(packed, 0x1234L);
+		UUIDSort.sort(packed);
+		UUIDSort.parallelSort(packed);
+		long[] exp = new long[2 * 100];
+		Arrays.fill(exp, 0x1234L);
+		assertArrayEquals(exp, packed);
+	}
+
+	@Test
+	void parallelSortPacked() {
+		long[] packed = random(300_000, 42);
+		long[] exp = expected(packed);
+		UUIDSort.parallelSort(packed);
+		assertArrayEquals(exp, packed);
+
+		long[] small = random(100, 7);
+		long[] expSmall = expected(small);
+		UUIDSort.parallelSort(small);
+		assertArrayEquals(expSmall, small);
+	}
+
+	@Test
+	void sortBuffer() {
+		long[] packed = random(500, 3);
+		long[] exp = expected(packed);
+		ByteBuffer buf = ByteBuffer.allocateDirect(4 + 16 * 500 + 5);
+		buf.position(4);
+		for (long l : packed) {
+			buf.putLong(l);
+		}
+		buf.position(4);
+		UUIDSort.sort(buf);
+		assertEquals(4, buf.position());
+
+		UUIDView view = UUIDView.over(buf);
+		assertEquals(500, view.slotCount());
+		for (int i = 0; i < 500; i++) {
+			view.moveTo(i);
+			assertEquals(exp[2 * i], view.getMostSignificantBits());
+			assertEquals(exp[2 * i + 1], view.getLeastSignificantBits());
+		}
+	}
+
+	@Test
+	void invalidInput() {
+		assertThrows(IllegalArgumentException.class, () -> UUIDSort.sort(new long[3]));
+		assertThrows(java.nio.ReadOnlyBufferException.class,
+			() -> UUIDSort.sort(ByteBuffer.allocate(32).asReadOnlyBuffer()));
+	}
+
+}
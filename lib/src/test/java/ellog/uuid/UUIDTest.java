@@ -21,6 +21,13 @@ package ellog.uuid;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,7 +42,8 @@ class UUIDTest {
 		assertEquals("0", uuid.toStringDecimal());
 		assertEquals(UUID.NIL_UUID, uuid);
 		assertEquals("urn:uuid:" + nul, uuid.toUrn().toString());
-		assertEquals("urn:oid:0", uuid.toOidUrn().toString());
+		assertEquals("urn:oid:2.25.0", uuid.toOidUrn().toString());
+		assertEquals("2.25.0", uuid.toStringOid());
     }
 
 	@Test
@@ -44,9 +52,9 @@ class UUIDTest {
 		UUID uuid = UUID.parseHex(max);
 		assertEquals(max.toLowerCase(), uuid.toString());
 		assertEquals("11111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111111", uuid.toStringBinary());
-		assertEquals("-1", uuid.toStringDecimal());
+		assertEquals("340282366920938463463374607431768211455", uuid.toStringDecimal());
 		assertEquals(UUID.MAX_UUID, uuid);
-		assertEquals("urn:oid:-1", uuid.toOidUrn().toString());
+		assertEquals("urn:oid:2.25.340282366920938463463374607431768211455", uuid.toOidUrn().toString());
 	}
 
 	@Test
@@ -78,6 +86,16 @@ class UUIDTest {
 		assertTrue(m1.compareTo(m2) == 0);
 	}
 
+	@Test
+	void hashCodeConsistency() {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		UUID u2 = UUID.readFrom(ByteBuffer.wrap(u1.getBytes()));
+		UUID u3 = UUID.fromBytes(u1.getBytes());
+		assertEquals(u1.hashCode(), u2.hashCode());
+		assertEquals(u1.hashCode(), u3.hashCode());
+		assertNotEquals(u1.hashCode(), UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654320").hashCode());
+	}
+
 	@Test
 	void serialization() throws IOException, ClassNotFoundException {
 		UUID u1 = UUID.parseHex("FFFFFFFF-FFFF-FFFF-FFFF-FFFFFFFFFFFF");
@@ -89,6 +107,222 @@ class UUIDTest {
 		assertEquals(u2, reread2);
 	}
 
+	@Test
+	void compactSerialization() throws IOException, ClassNotFoundException {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		UUID reread = serializeDeserialize(u1);
+		assertEquals(StandardUUID.class, reread.getClass());
+		assertEquals(UnknownUUID.class, serializeDeserialize(UUID.NIL_UUID).getClass());
+
+		// after the first object, only a handle to the class descriptor and the 16 octets are written
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream oout = new ObjectOutputStream(out);
+		oout.writeObject(UUID.createRandom());
+		oout.flush();
+		int first = out.size();
+		oout.writeObject(UUID.createRandom());
+		oout.flush();
+		assertTrue(out.size() - first <= 25);
+	}
+
+	@Test
+	void dataStreamCodec() throws IOException {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		u1.writeTo(new DataOutputStream(out));
+		UUID.MAX_UUID.writeTo(new DataOutputStream(out));
+		assertArrayEquals(u1.getBytes(), Arrays.copyOf(out.toByteArray(), 16));
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(u1, UUID.readFrom(in));
+		assertEquals(UUID.MAX_UUID, UUID.readFrom(in));
+	}
+
+	@Test
+	void byteBufferCodec() {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+			ByteBuffer buf = ByteBuffer.allocate(33).order(order);
+			buf.put((byte) 0);
+			u1.writeTo(buf);
+			UUID.NIL_UUID.writeTo(buf);
+			assertEquals((byte) 0x89, buf.get(1));
+			buf.flip();
+			buf.get();
+			UUID reread = UUID.readFrom(buf);
+			assertEquals(u1, reread);
+			assertEquals(StandardUUID.class, reread.getClass());
+			assertEquals(UUID.NIL_UUID, UUID.readFrom(buf));
+			assertEquals(0, buf.remaining());
+		}
+	}
+
+	@Test
+	void byteBufferCodecShortBuffer() {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		ByteBuffer dst = ByteBuffer.allocate(12);
+		assertThrows(BufferOverflowException.class, () -> u1.writeTo(dst));
+		// nothing is written if the UUID does not fit
+		assertEquals(0, dst.position());
+		assertArrayEquals(new byte[12], dst.array());
+
+		ByteBuffer src = ByteBuffer.wrap(u1.getBytes(), 0, 10);
+		assertThrows(BufferUnderflowException.class, () -> UUID.readFrom(src));
+		assertEquals(0, src.position());
+	}
+
+	@Test
+	void readAtOffset() {
+		UUID u1 = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		byte[] frame = new byte[40];
+		System.arraycopy(u1.getBytes(), 0, frame, 3, 16);
+		System.arraycopy(UUID.MAX_UUID.getBytes(), 0, frame, 19, 16);
+
+		UUID r1 = UUID.fromBytes(frame, 3);
+		assertEquals(u1, r1);
+		assertEquals(StandardUUID.class, r1.getClass());
+		assertEquals(UnknownUUID.class, UUID.fromBytes(frame, 19).getClass());
+		assertEquals(u1, StandardUUID.fromBytes(frame, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> UUID.fromBytes(frame, 30));
+
+		ByteBuffer buf = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(u1, UUID.fromBuffer(buf, 3));
+		assertEquals(UUID.MAX_UUID, UUID.fromBuffer(buf, 19));
+		assertEquals(0, buf.position());
+
+		UUID r2 = UUID.fromLongs(u1.getMostSignificantBits(), u1.getLeastSignificantBits());
+		assertEquals(u1, r2);
+		assertEquals(0x89ABCDEF45671123L, r2.getMostSignificantBits());
+		assertEquals(0xB234CBA987654321L, r2.getLeastSignificantBits());
+		assertThrows(ClassCastException.class, () -> StandardUUID.fromLongs(0, 0));
+	}
+
+	@Test
+	void decimalAndOid() {
+		UUID uuid = UUID.parseHex("f81d4fae-7dec-11d0-a765-00a0c91e6bf6");
+		assertEquals("329800735698586629295641978511506172918", uuid.toStringDecimal());
+		assertEquals("2.25.329800735698586629295641978511506172918", uuid.toStringOid());
+		assertEquals(uuid, UUID.parseDecimal(uuid.toStringDecimal()));
+		assertEquals(uuid, UUID.parseOid(uuid.toStringOid()));
+		assertEquals(uuid, UUID.parseOid(uuid.toOidUrn().toString()));
+
+		String[] values = {"1", "999999999", "1000000000", "18446744073709551615", "18446744073709551616",
+			"1000000000000000000000000000000000000", "340282366920938463463374607431768211455"};
+		for (String value : values) {
+			assertEquals(value, UUID.parseDecimal(value).toStringDecimal());
+		}
+		assertEquals(0x1L, UUID.parseDecimal("18446744073709551616").getMostSignificantBits());
+		assertEquals(UUID.MAX_UUID, UUID.parseDecimal("340282366920938463463374607431768211455"));
+
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseDecimal("340282366920938463463374607431768211456"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseDecimal("3402823669209384634633746074317682114550"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseDecimal("-1"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseDecimal(""));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseOid("1.25.1"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseOid("urn:oid:2.25."));
+
+		// arcs are canonical without leading zeros
+		assertEquals(UUID.NIL_UUID, UUID.parseDecimal("0"));
+		assertEquals(UUID.NIL_UUID, UUID.parseOid("2.25.0"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseOid("2.25.007"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseOid("2.25.00"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseDecimal("01"));
+	}
+
+	@Test
+	void parseLazy() throws IOException, ClassNotFoundException {
+		String str = "01234567-89ab-4def-8123-456789abcdef";
+		UUID lazy = UUID.parseHexLazy(str);
+		assertSame(str, lazy.toString());
+		assertTrue(lazy instanceof StandardUUID);
+		assertEquals(UUID.parseHex(str), lazy);
+		assertEquals(0, lazy.compareTo(UUID.parseHex(str)));
+		assertEquals(UUID.parseHex(str).hashCode(), lazy.hashCode());
+		assertEquals(StandardVersion.RANDOM, ((StandardUUID) lazy).version());
+		assertEquals(UUID.parseHex(str), serializeDeserialize(lazy));
+		assertEquals(StandardUUID.class, serializeDeserialize(lazy).getClass());
+
+		UUID upper = UUID.parseHexLazy(str.toUpperCase());
+		assertEquals(str, upper.toString());
+		assertEquals(lazy, upper);
+
+		byte[] frame = ("xx" + str.toUpperCase() + "yy").getBytes(StandardCharsets.US_ASCII);
+		UUID fromBytes = UUID.parseHexLazy(frame, 2);
+		assertEquals(lazy, fromBytes);
+		assertEquals(str, fromBytes.toString());
+		frame = ("xx" + str).getBytes(StandardCharsets.US_ASCII);
+		assertEquals(str, UUID.parseHexLazy(frame, 2).toString());
+
+		// the characters are copied, so modifying the source afterwards has no effect
+		UUID copied = UUID.parseHexLazy(frame, 2);
+		Arrays.fill(frame, (byte) '0');
+		assertEquals(lazy, copied);
+		StringBuilder builder = new StringBuilder(str);
+		UUID fromBuilder = UUID.parseHexLazy(builder);
+		builder.setCharAt(0, 'f');
+		assertEquals(lazy, fromBuilder);
+		assertEquals(str, fromBuilder.toString());
+
+		UUID microsoft = UUID.parseHexLazy("01234567-89ab-cdef-c123-456789abcdef");
+		assertTrue(microsoft instanceof UnknownUUID);
+		assertEquals(Variant.MICROSOFT, microsoft.variant());
+
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseHexLazy("01234567-89ab-4def-8123-456789abcdeg"));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseHexLazy(
+			"01234567-89ab-4def-8123+456789abcdef".getBytes(StandardCharsets.US_ASCII), 0));
+		assertThrows(IllegalArgumentException.class, () -> UUID.parseHexLazy(
+			"01234567-89ab-4def-8123-4567\u00e489abcde".getBytes(StandardCharsets.ISO_8859_1), 0));
+	}
+
+	@Test
+	void epochAccessors() {
+		Instant instant = Instant.parse("2023-06-01T12:34:56.1234567Z");
+		long ts = instant.getEpochSecond() * 10_000_000 + instant.getNano() / 100 + 0x01B21DD213814000L;
+		StandardUUID v1 = (StandardUUID) UUIDComparatorsTest.v1(ts, 0, 0);
+		StandardUUID v6 = StandardUUID.fromLongs((ts >>> 12) << 16 | 0x6000L | ts & 0x0FFFL, 0x8000000000000000L);
+		StandardUUID v7 = StandardUUID.parseHex("01887700-4a7b-7000-8000-000000000000");
+		StandardUUID v4 = StandardUUID.parseHex("01887700-4a7b-4000-8000-000000000000");
+
+		assertEquals(instant, v1.instant());
+		assertEquals(instant, v6.instant());
+		assertEquals(instant.toEpochMilli(), v1.epochMillis());
+		assertEquals(instant.toEpochMilli(), v6.epochMillis());
+		assertEquals(0x01887700_4a7bL, v7.epochMillis());
+		assertEquals(Instant.ofEpochMilli(0x01887700_4a7bL), v7.instant());
+		assertTrue(v7.isTimeBased());
+		assertFalse(v4.isTimeBased());
+		assertThrows(IllegalStateException.class, v4::epochMillis);
+		assertThrows(IllegalStateException.class, v4::instant);
+
+		// timestamps before the unix epoch are rounded down
+		StandardUUID early = (StandardUUID) UUIDComparatorsTest.v1(1, 0, 0);
+		assertEquals(TimeProviderV1.REFERENCE.plusNanos(100), early.instant());
+		assertEquals(TimeProviderV1.REFERENCE.toEpochMilli(), early.epochMillis());
+
+		UUID[] uuids = {v1, v6, v7, v4, UUID.MAX_UUID};
+		long[] packed = new long[2 * uuids.length];
+		for (int i = 0; i < uuids.length; i++) {
+			packed[2 * i] = uuids[i].getMostSignificantBits();
+			packed[2 * i + 1] = uuids[i].getLeastSignificantBits();
+		}
+		long[] millis = new long[uuids.length];
+		StandardUUID.epochMillis(packed, millis);
+		assertArrayEquals(new long[] {v1.epochMillis(), v6.epochMillis(), v7.epochMillis(),
+			StandardUUID.NO_TIMESTAMP, StandardUUID.NO_TIMESTAMP}, millis);
+		assertThrows(IllegalArgumentException.class, () -> StandardUUID.epochMillis(packed, new long[2]));
+		assertThrows(IllegalArgumentException.class, () -> StandardUUID.epochMillis(new long[3], new long[2]));
+
+		UUIDView view = UUIDView.over(packed).moveTo(2);
+		assertEquals(v7.epochMillis(), view.epochMillis());
+
+		// the version nibble only has a meaning in RFC 4122 UUIDs, all accessors ignore it for other variants
+		long[] foreign = {v7.getMostSignificantBits(), 0xC000000000000000L};
+		assertFalse(UUID.fromLongs(foreign[0], foreign[1]) instanceof StandardUUID);
+		StandardUUID.epochMillis(foreign, millis);
+		assertEquals(StandardUUID.NO_TIMESTAMP, millis[0]);
+		assertEquals(StandardUUID.NO_TIMESTAMP, UUIDView.over(foreign).moveTo(0).epochMillis());
+	}
+
 	UUID serializeDeserialize(UUID input) throws IOException, ClassNotFoundException {
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		ObjectOutputStream oout = new ObjectOutputStream(out);
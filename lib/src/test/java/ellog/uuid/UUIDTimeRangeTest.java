@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDTimeRangeTest {
+
+	@Test
+	void boundsV7() {
+		Instant now = Instant.now();
+		UUIDTimeRange range = UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED, now.minusSeconds(10), now.plusSeconds(10));
+		StandardUUID uuid = new TimeV7Supplier().get();
+
+		assertTrue(range.lowerBound().compareTo(uuid) < 0);
+		assertTrue(range.upperBound().compareTo(uuid) > 0);
+		assertTrue(range.test(uuid));
+		assertEquals(StandardVersion.TIME_BASED_ORDERED, range.upperBound().version());
+		assertEquals(Variant.RFC_4122, range.upperBound().variant());
+
+		UUIDTimeRange past = UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED, now.minusSeconds(20), now.minusSeconds(10));
+		assertFalse(past.test(uuid));
+		assertTrue(past.upperBound().compareTo(uuid) < 0);
+	}
+
+	@Test
+	void boundsV7Exact() {
+		Instant ts = Instant.ofEpochMilli(0x0123456789ABL);
+		UUIDTimeRange range = UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED, ts, ts);
+		assertEquals("01234567-89ab-7000-8000-000000000000", range.lowerBound().toString());
+		assertEquals("01234567-89ab-7fff-bfff-ffffffffffff", range.upperBound().toString());
+	}
+
+	@Test
+	void boundsV6() {
+		Instant now = Instant.now();
+		UUIDTimeRange range = UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED_LEGACY, now.minusSeconds(10), now.plusSeconds(10));
+		StandardUUID uuid = new TimeV6Supplier().get();
+
+		assertTrue(range.lowerBound().compareTo(uuid) < 0);
+		assertTrue(range.upperBound().compareTo(uuid) > 0);
+		assertTrue(range.test(uuid));
+		assertFalse(UUIDTimeRange.of(StandardVersion.TIME_BASED_ORDERED_LEGACY, now.plusSeconds(10), now.plusSeconds(20)).test(uuid));
+	}
+
+	@Test
+	void predicateV1() {
+		Instant now = Instant.now();
+		UUIDTimeRange range = UUIDTimeRange.of(StandardVersion.TIME_BASED, now.minusSeconds(10), now.plusSeconds(10));
+		StandardUUID uuid = new TimeV1Supplier().get();
+
+		assertTrue(range.test(uuid));
+		assertTrue(range.test(range.lowerBound()));
+		assertTrue(range.test(range.upperBound()));
+		// other versions never match
+		assertFalse(range.test(new TimeV6Supplier().get()));
+		assertFalse(range.test(UUID.NIL_UUID));
+	}
+
+	@Test
+	void invalidRange() {
+		Instant now = Instant.now();
+		assertThrows(IllegalArgumentException.class, () -> UUIDTimeRange.of(StandardVersion.RANDOM, now, now));
+		assertThrows(IllegalArgumentException.class, () -> UUIDTimeRange.of(StandardVersion.TIME_BASED, now, now.minusSeconds(1)));
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDViewTest {
+
+	@Test
+	void bufferView() {
+		StandardUUID v1 = StandardUUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		StandardUUID v7 = new TimeV7Supplier().get();
+		ByteBuffer buf = ByteBuffer.allocate(3 * 16 + 4);
+		buf.position(4);
+		v1.writeTo(buf);
+		v7.writeTo(buf);
+		UUID.MAX_UUID.writeTo(buf);
+		buf.position(4);
+
+		UUIDView view = UUIDView.over(buf);
+		assertEquals(3, view.slotCount());
+		view.moveTo(0);
+		assertEquals(v1.versionRaw(), view.versionRaw());
+		assertEquals(v1.timestamp(), view.timestamp());
+		assertEquals(v1.clockSequence(), view.clockSequence());
+		assertEquals(v1.node(), view.node());
+		assertEquals(0, view.compareTo(v1));
+		assertEquals(v1, view.materialize());
+
+		view.moveTo(1);
+		assertEquals(StandardVersion.TIME_BASED_ORDERED, view.version());
+		assertEquals(v7.timestamp(), view.timestamp());
+		assertEquals(v7, view.materialize());
+
+		view.moveTo(2);
+		assertEquals(Variant.RESERVED, view.variant());
+		assertTrue(view.compareTo(v7) > 0);
+		assertEquals(UnknownUUID.class, view.materialize().getClass());
+		assertThrows(IndexOutOfBoundsException.class, () -> view.moveTo(3));
+	}
+
+	@Test
+	void packedView() {
+		UUID u1 = UUID.createRandom();
+		UUID u2 = UUID.createRandom();
+		long[] packed = {
+			u1.getMostSignificantBits(), u1.getLeastSignificantBits(),
+			u2.getMostSignificantBits(), u2.getLeastSignificantBits()
+		};
+		UUIDView a = UUIDView.over(packed).moveTo(0);
+		UUIDView b = UUIDView.over(packed).moveTo(1);
+
+		assertEquals(Integer.signum(u1.compareTo(u2)), Integer.signum(a.compareTo(b)));
+		assertEquals(u1.toString(), a.toString());
+		assertEquals(StandardVersion.RANDOM, b.version());
+		assertEquals(u2, b.materialize());
+
+		assertNotEquals(a, b);
+		b.moveTo(0);
+		assertEquals(0, a.compareTo(b));
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(u1.hashCode(), a.hashCode());
+		assertNotEquals(u1, a);
+	}
+
+}
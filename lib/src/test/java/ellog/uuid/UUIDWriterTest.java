@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDWriterTest {
+
+	@Test
+	void formatMatchesReference() {
+		byte[] dst = new byte[40];
+		for (int i = 0; i < 1000; i++) {
+			UUID uuid = UUID.createRandom();
+			ByteBuffer buf = ByteBuffer.wrap(uuid.getBytes());
+			String expected = String.format("%08x-%04x-%04x-%04x-%04x%08x",
+				buf.getInt(0), buf.getShort(4), buf.getShort(6), buf.getShort(8), buf.getShort(10), buf.getInt(12));
+			BatchHexFormatter.format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dst, 2);
+			assertEquals(expected, new String(dst, 2, 36, StandardCharsets.US_ASCII));
+			assertEquals(expected, uuid.toString());
+		}
+	}
+
+	@Test
+	void writeAndReadBack() throws IOException {
+		List<UUID> ids = new ArrayList<>();
+		long[] packed = new long[2 * 500];
+		for (int i = 0; i < 500; i++) {
+			UUID id = UUID.createTimeV7();
+			ids.add(id);
+			packed[2 * i] = id.getMostSignificantBits();
+			packed[2 * i + 1] = id.getLeastSignificantBits();
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (UUIDWriter writer = new UUIDWriter(Channels.newChannel(out), 100)) {
+			writer.setSeparator((byte) '\r', (byte) '\n');
+			writer.write(packed, 0, 250);
+			for (UUID id : ids.subList(250, 500)) {
+				writer.write(id);
+			}
+		}
+		assertEquals(500 * 38, out.size());
+
+		UUIDReader reader = new UUIDReader(ByteBuffer.wrap(out.toByteArray()));
+		for (UUID id : ids) {
+			assertEquals(id, reader.read());
+		}
+		assertNull(reader.read());
+	}
+
+	@Test
+	void writeUrn() throws IOException {
+		UUID uuid = UUID.parseHex("89ABCDEF-4567-1123-B234-CBA987654321");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		UUIDWriter writer = new UUIDWriter(out).setUrn(true).setSeparator((byte) ',');
+		writer.write(uuid);
+		writer.write(UUID.NIL_UUID);
+		writer.flush();
+		assertEquals(uuid.toUrn() + "," + UUID.NIL_UUID.toUrn() + ",", out.toString("US-ASCII"));
+	}
+
+	@Test
+	void flushReachesStream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BufferedOutputStream buffered = new BufferedOutputStream(out, 1024);
+		UUIDWriter writer = new UUIDWriter(buffered);
+		writer.write(UUID.NIL_UUID);
+		writer.flush();
+		assertEquals(UUID.NIL_UUID + "\n", out.toString("US-ASCII"));
+	}
+
+	@Test
+	void bufferTooSmall() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThrows(IllegalArgumentException.class, () -> new UUIDWriter(Channels.newChannel(out), 36));
+		UUIDWriter writer = new UUIDWriter(Channels.newChannel(out), 37);
+		assertThrows(IllegalArgumentException.class, () -> writer.setUrn(true));
+	}
+
+}
@@ -93,11 +93,54 @@ public class UUIDv1Test {
 		Instant t1 = reconstructTimestamp(uuid1);
 		Instant t2 = reconstructTimestamp(uuid2);
 		assertTrue(t2.isAfter(t1));
+		// the accessor of the UUID matches the independent reconstruction
+		assertEquals(t1, uuid1.instant());
+	}
+
+	@Test
+	void randomAddressIsMulticast() {
+		TimeV1Supplier v1Supplier = new TimeV1Supplier();
+		for (int i = 0; i < 16; i++) {
+			v1Supplier.loadRandomAddress();
+			assertNotEquals(0, v1Supplier.get().node() & (1L << 40));
+		}
+	}
+
+	@Test
+	void startupOptimized() throws InterruptedException {
+		TimeV1Supplier v1Supplier = TimeV1Supplier.createStartupOptimized();
+		StandardUUID first = v1Supplier.get();
+		assertEquals(StandardVersion.TIME_BASED, first.version());
+		assertEquals(Variant.RFC_4122, first.variant());
+
+		// the background lookup eventually replaces the address, if the host has one
+		long hostAddress = HostAddress.get();
+		if (hostAddress != HostAddress.NONE) {
+			long deadline = System.nanoTime() + 10_000_000_000L;
+			StandardUUID uuid = v1Supplier.get();
+			while (uuid.node() != hostAddress && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+				uuid = v1Supplier.get();
+			}
+			assertEquals(hostAddress, uuid.node());
+			assertTrue(uuid.compareTo(first) != 0);
+		} else {
+			assertNotEquals(0, first.node() & (1L << 40));
+		}
+	}
+
+	@Test
+	void reserveTimestamps() {
+		TimeProviderV1 provider = TimeProviderV1.create();
+		long first = provider.reserveRefTimestamps(5, 100);
+		// the reserved timestamps are skipped by the next timestamp
+		assertTrue(provider.getNextRefTimestamp100ns() >= first + 5);
+		assertThrows(IllegalArgumentException.class, () -> provider.reserve(0, 100));
 	}
 
 	private Instant reconstructTimestamp(StandardUUID uuid) {
 		long high = ((long) uuid.timeHiAndVersion() & 0x0FFF) << 48;
-		long mid = (long) (uuid.timeMid()) << 32;
+		long mid = ((long) uuid.timeMid() & 0xFFFF) << 32;
 		long low = uuid.timeLow() & 0xFFFFFFFFL;
 		long ts
 			= high
@@ -105,7 +148,7 @@ public class UUIDv1Test {
 			| low;
 		long tsMillis = ts / 10_000;
 		Instant tsInst = TimeProviderV1.REFERENCE.plusMillis(tsMillis);
-		long tsNanos = ts % (1_000_000 / 100);
+		long tsNanos = (ts % 10_000) * 100;
 		tsInst = tsInst.plusNanos(tsNanos);
 		return tsInst;
 	}
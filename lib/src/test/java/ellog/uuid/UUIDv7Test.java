@@ -20,9 +20,15 @@ package ellog.uuid;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class UUIDv7Test {
 
@@ -48,4 +54,146 @@ public class UUIDv7Test {
 			});
 		assertTrue(lastUUID.isPresent());
 	}
+
+	@Test
+	void testPartitioned() throws InterruptedException {
+		Clock clock = Clock.fixed(Instant.ofEpochMilli(1_700_000_000_000L), ZoneOffset.UTC);
+		PartitionedV7Supplier supplier = new PartitionedV7Supplier(4, clock);
+		StandardUUID[] first = new StandardUUID[2];
+		StandardUUID[] last = new StandardUUID[2];
+		// both threads are alive at the same time, so they own different slots
+		CountDownLatch started = new CountDownLatch(2);
+		Thread[] threads = new Thread[2];
+		for (int t = 0; t < 2; t++) {
+			int index = t;
+			threads[t] = new Thread(() -> {
+				first[index] = supplier.get();
+				started.countDown();
+				try {
+					started.await();
+				} catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				for (int i = 0; i < 5000; i++) {
+					last[index] = supplier.get();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Set<Long> slots = new HashSet<>();
+		for (int t = 0; t < 2; t++) {
+			assertEquals(StandardVersion.TIME_BASED_ORDERED, first[t].version());
+			assertEquals(Variant.RFC_4122, first[t].variant());
+			assertEquals(1_700_000_000_000L, first[t].epochMillis());
+			// more than 4096 UUIDs within the stalled millisecond continue in the next one
+			assertEquals(1_700_000_000_001L, last[t].epochMillis());
+			assertTrue(first[t].compareTo(last[t]) < 0);
+			assertEquals(supplier.slot(first[t]), supplier.slot(last[t]));
+			slots.add(supplier.slot(first[t]));
+		}
+		assertEquals(2, slots.size());
+
+		// a new thread reuses the slot of a terminated thread and continues after its last UUID
+		StandardUUID[] reused = new StandardUUID[1];
+		Thread next = new Thread(() -> reused[0] = supplier.get());
+		next.start();
+		next.join();
+		long slot = supplier.slot(reused[0]);
+		assertTrue(slots.contains(slot));
+		int owner = supplier.slot(last[0]) == slot ? 0 : 1;
+		assertTrue(Long.compareUnsigned(reused[0].getMostSignificantBits(), last[owner].getMostSignificantBits()) > 0);
+
+		assertThrows(IllegalArgumentException.class, () -> new PartitionedV7Supplier(33));
+		assertEquals(StandardVersion.TIME_BASED_ORDERED, StandardUUID.createTimeV7Partitioned().version());
+	}
+
+	@Test
+	void testLongCounterOrdered() {
+		Clock clock = Clock.fixed(Instant.ofEpochMilli(1_700_000_000_000L), ZoneOffset.UTC);
+		TimeV7Supplier supplier = new TimeV7Supplier(TimeProviderV7.create().setClock(clock), 20);
+		StandardUUID previous = supplier.get();
+		for (int i = 0; i < 10_000; i++) {
+			StandardUUID next = supplier.get();
+			assertTrue(previous.compareTo(next) < 0);
+			previous = next;
+		}
+		assertEquals(1_700_000_000_000L, previous.epochMillis());
+	}
+
+	@Test
+	void testHybridClock() {
+		long now = 1_700_000_000_000L;
+		HybridTimeProviderV7 remoteClock = new HybridTimeProviderV7();
+		remoteClock.setClock(Clock.fixed(Instant.ofEpochMilli(now + 50), ZoneOffset.UTC));
+		HybridTimeProviderV7 localClock = new HybridTimeProviderV7();
+		localClock.setClock(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+		TimeV7Supplier remote = new TimeV7Supplier(remoteClock, 12);
+		TimeV7Supplier local = new TimeV7Supplier(localClock, 12);
+
+		StandardUUID before = local.get();
+		StandardUUID received = remote.get();
+		for (int i = 0; i < 10; i++) {
+			received = remote.get();
+		}
+		assertTrue(received.compareTo(before) > 0);
+		assertTrue(localClock.observe(received));
+		StandardUUID reply = local.get();
+		assertTrue(reply.compareTo(received) > 0);
+		assertEquals(now + 50, reply.epochMillis());
+
+		// older timestamps do not move the logical time backwards
+		assertTrue(localClock.observe(before));
+		assertTrue(local.get().compareTo(reply) > 0);
+
+		// timestamps too far in the future are rejected
+		assertFalse(localClock.observe(now + HybridTimeProviderV7.DEFAULT_MAX_DRIFT_MILLIS + 1, 0));
+		assertTrue(localClock.observe(now + HybridTimeProviderV7.DEFAULT_MAX_DRIFT_MILLIS, 0));
+		assertEquals(now + HybridTimeProviderV7.DEFAULT_MAX_DRIFT_MILLIS, local.get().epochMillis());
+		assertThrows(IllegalArgumentException.class, () -> new HybridTimeProviderV7(-1));
+	}
+
+	@Test
+	void testReserve() {
+		long now = 1_700_000_000_000L;
+		TimeProviderV7 provider = TimeProviderV7.create().setClock(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+		TimeProviderV7.Reservation first = provider.reserve(10, 4);
+		assertEquals(now, first.time);
+		assertEquals(0, first.counter);
+		assertEquals(10, first.count);
+		// only 6 values are left in the 4 bit counter
+		TimeProviderV7.Reservation second = provider.reserve(10, 4);
+		assertEquals(now, second.time);
+		assertEquals(10, second.counter);
+		assertEquals(6, second.count);
+		TimeProviderV7.TimeAndCounter next = provider.getNext(4);
+		assertEquals(now + 1, next.time);
+		assertEquals(0, next.counter);
+		assertThrows(IllegalArgumentException.class, () -> provider.reserve(0));
+	}
+
+	@Test
+	void testLeasedHybridClock() throws InterruptedException {
+		long now = 1_700_000_000_000L;
+		HybridTimeProviderV7 localClock = new HybridTimeProviderV7();
+		localClock.setClock(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+		TimeV7Supplier local = new TimeV7Supplier(localClock, 12).setLeaseSize(16);
+		// use the supplier from a second thread, so the threads lease counter values
+		Thread other = new Thread(local::get);
+		other.start();
+		other.join();
+		StandardUUID before = local.get();
+		StandardUUID after = local.get();
+		assertTrue(after.compareTo(before) > 0);
+
+		// the remaining leased values are outdated after observing a greater value
+		assertTrue(localClock.observe(now, 100));
+		StandardUUID reply = local.get();
+		assertTrue(reply.compareTo(after) > 0);
+		assertTrue((reply.getMostSignificantBits() & 0x0FFF) > 100);
+	}
+
 }
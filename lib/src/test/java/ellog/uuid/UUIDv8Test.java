@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDv8Test {
+
+	@Test
+	void snowflakeFields() {
+		CustomV8Layout layout = CustomV8Layout.snowflake();
+		CustomV8Supplier supplier = new CustomV8Supplier(layout, 0x2A5);
+		long before = System.currentTimeMillis();
+		StandardUUID uuid = supplier.get();
+		long after = System.currentTimeMillis();
+
+		assertEquals(StandardVersion.VENDOR_SPECIFIC, uuid.version());
+		assertEquals(Variant.RFC_4122, uuid.variant());
+		assertEquals(59, layout.randomBits());
+		assertEquals(0x2A5, layout.worker(uuid));
+		long ts = layout.timestampMillis(uuid);
+		assertTrue(ts >= before && ts <= after);
+	}
+
+	@Test
+	void fieldsSpanningVariant() {
+		// the worker field covers the 2 variant bits between the upper and the lower part of the payload
+		CustomV8Layout layout = new CustomV8Layout(48, 24, 16, 0);
+		CustomV8Supplier supplier = new CustomV8Supplier(layout, 0xABCDEF);
+		StandardUUID uuid = supplier.get();
+
+		assertEquals(8, uuid.versionRaw());
+		assertEquals(Variant.RFC_4122, uuid.variant());
+		assertEquals(0xABCDEF, layout.worker(uuid));
+		assertEquals(0, layout.sequence(uuid));
+	}
+
+	@Test
+	void testOrderedBatch() {
+		CustomV8Layout layout = CustomV8Layout.snowflake();
+		CustomV8Supplier supplier = new CustomV8Supplier(layout, 1);
+		StandardUUID last = supplier.get();
+		for (int i = 0; i < 10000; i++) {
+			StandardUUID next = supplier.get();
+			assertTrue(last.compareTo(next) < 0);
+			assertTrue(layout.sequence(next) <= layout.maxSequence());
+			last = next;
+		}
+	}
+
+	@Test
+	void invalidLayout() {
+		assertThrows(IllegalArgumentException.class, () -> new CustomV8Layout(64, 64, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new CustomV8Layout(-1, 10, 12, 0));
+		assertThrows(IllegalArgumentException.class, () -> new CustomV8Supplier(CustomV8Layout.snowflake(), 1024));
+	}
+
+}
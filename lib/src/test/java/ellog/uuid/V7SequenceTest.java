@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2023 Tobias Wich
+ * This file is part of the electrologic UUID library.
+ *
+ * This software is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ellog.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class V7SequenceTest {
+
+	private static long[] sortedV7(int count, long seed) {
+		Random rand = new Random(seed);
+		long[] packed = new long[2 * count];
+		long ts = 1_700_000_000_000L;
+		for (int i = 0; i < count; i++) {
+			ts += rand.nextInt(3);
+			packed[2 * i] = ts << 16 | 0x7000 | rand.nextInt(0x1000);
+			packed[2 * i + 1] = Long.MIN_VALUE | rand.nextLong() >>> 2;
+		}
+		UUIDSort.sort(packed);
+		return packed;
+	}
+
+	private static ByteBuffer encode(long[] packed, int blockSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (V7SequenceWriter writer = new V7SequenceWriter(Channels.newChannel(out), blockSize)) {
+			writer.write(packed, 0, packed.length / 2);
+		}
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	@Test
+	void roundTrip() throws IOException {
+		long[] packed = sortedV7(10_000, 1);
+		ByteBuffer file = encode(packed, 1000);
+		// 16 octets per UUID uncompressed, the 74 random bits alone need more than 9
+		assertTrue(file.remaining() < 11 * 10_000, "Encoded size " + file.remaining());
+
+		V7SequenceReader reader = new V7SequenceReader(file);
+		assertEquals(10_000, reader.size());
+		assertEquals(10, reader.blockCount());
+		long[] read = new long[packed.length];
+		int count = 0;
+		int n;
+		while ((n = reader.read(read, count, 777)) >= 0) {
+			count += n;
+		}
+		assertEquals(10_000, count);
+		assertArrayEquals(packed, read);
+
+		reader.seek(4321);
+		UUID uuid = reader.read();
+		assertEquals(UUID.fromLongs(packed[2 * 4321], packed[2 * 4321 + 1]), uuid);
+		assertEquals(4322, reader.position());
+	}
+
+	@Test
+	void mixedVersions() throws IOException {
+		long[] packed = sortedV7(100, 2);
+		packed[2 * 50 + 1] &= ~Long.MIN_VALUE;
+		packed[2 * 70] = packed[2 * 70] & ~0xF000L | 0x4000L;
+		long[] full = new long[2 * 101];
+		System.arraycopy(packed, 0, full, 0, packed.length);
+		full[200] = -1;
+		full[201] = -1;
+
+		V7SequenceReader reader = new V7SequenceReader(encode(full, 16));
+		long[] read = new long[full.length];
+		assertEquals(101, reader.read(read, 0, 200));
+		assertEquals(-1, reader.read(read, 0, 1));
+		assertNull(reader.read());
+		assertArrayEquals(full, read);
+	}
+
+	@Test
+	void seekToUUID() throws IOException {
+		long[] packed = sortedV7(5000, 3);
+		V7SequenceReader reader = new V7SequenceReader(encode(packed, 64));
+		for (int i = 0; i < 5000; i += 97) {
+			long msb = packed[2 * i];
+			long lsb = packed[2 * i + 1];
+			assertEquals(i, reader.seekTo(msb, lsb));
+			assertEquals(UUID.fromLongs(msb, lsb), reader.read());
+			// the next larger UUID is found even if it is not contained in the sequence
+			assertEquals(i + 1, reader.seekTo(msb, lsb + 1));
+		}
+		assertEquals(0, reader.seekTo(0, 0));
+		assertEquals(5000, reader.seekTo(-1, -1));
+		assertNull(reader.read());
+
+		long millis = UUIDBits.v7Millis(packed[2 * 2500]);
+		long pos = reader.seekToEpochMillis(millis);
+		assertEquals(millis, UUIDBits.v7Millis(packed[(int) (2 * pos)]));
+		assertTrue(pos == 0 || UUIDBits.v7Millis(packed[(int) (2 * pos - 2)]) < millis);
+		assertEquals(0, reader.seekToEpochMillis(Long.MIN_VALUE));
+		assertEquals(5000, reader.seekToEpochMillis(Long.MAX_VALUE));
+	}
+
+	@Test
+	void emptyAndInvalid() throws IOException {
+		V7SequenceReader reader = new V7SequenceReader(encode(new long[0], 16));
+		assertEquals(0, reader.size());
+		assertEquals(0, reader.blockCount());
+		assertNull(reader.read());
+		assertEquals(0, reader.seekTo(1, 1));
+
+		assertThrows(IllegalArgumentException.class, () -> new V7SequenceReader(ByteBuffer.allocate(64)));
+		V7SequenceWriter writer = new V7SequenceWriter(new ByteArrayOutputStream());
+		writer.write(2, 2);
+		assertThrows(IllegalArgumentException.class, () -> writer.write(2, 1));
+		writer.close();
+	}
+
+}